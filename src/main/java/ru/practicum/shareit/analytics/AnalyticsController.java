@@ -0,0 +1,41 @@
+package ru.practicum.shareit.analytics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.analytics.dto.ItemUtilizationDto;
+import ru.practicum.shareit.analytics.dto.UtilizationPointDto;
+import ru.practicum.shareit.analytics.model.Granularity;
+import ru.practicum.shareit.analytics.service.AnalyticsService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics/items")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping
+    public List<ItemUtilizationDto> getOwnerItems(@RequestHeader(USER_HEADER) Long userId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                  LocalDate from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                  LocalDate to) {
+        return analyticsService.getOwnerItems(userId, from, to);
+    }
+
+    @GetMapping("/{itemId}")
+    public List<UtilizationPointDto> getItemUtilization(@RequestHeader(USER_HEADER) Long userId,
+                                                        @PathVariable Long itemId,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                        LocalDate from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                                        LocalDate to,
+                                                        @RequestParam(defaultValue = "DAY") Granularity granularity) {
+        return analyticsService.getItemUtilization(itemId, userId, from, to, granularity);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemUtilizationDto {
+    Long itemId;
+    String name;
+    long bookings;
+    double bookedHours;
+    double utilization;
+}
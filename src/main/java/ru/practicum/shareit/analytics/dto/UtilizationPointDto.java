@@ -0,0 +1,17 @@
+package ru.practicum.shareit.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UtilizationPointDto {
+    LocalDate periodStart;
+    long bookings;
+    double bookedHours;
+    double utilization;
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.analytics.model;
+
+public enum Granularity {
+    DAY,
+    WEEK
+}
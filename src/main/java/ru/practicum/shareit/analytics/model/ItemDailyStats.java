@@ -0,0 +1,29 @@
+package ru.practicum.shareit.analytics.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "item_daily_stats")
+@IdClass(ItemDayId.class)
+@Data
+@NoArgsConstructor
+public class ItemDailyStats {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private int bookings;
+
+    @Column(name = "booked_minutes", nullable = false)
+    private long bookedMinutes;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.analytics.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemDayId implements Serializable {
+    private Long itemId;
+    private LocalDate date;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.analytics.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.analytics")
+public class AnalyticsProperties {
+
+    private boolean enabled = true;
+
+    private int backfillBatchSize = 200;
+
+    private int maxRangeDays = 366;
+}
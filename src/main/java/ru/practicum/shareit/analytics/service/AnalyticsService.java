@@ -0,0 +1,15 @@
+package ru.practicum.shareit.analytics.service;
+
+import ru.practicum.shareit.analytics.dto.ItemUtilizationDto;
+import ru.practicum.shareit.analytics.dto.UtilizationPointDto;
+import ru.practicum.shareit.analytics.model.Granularity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AnalyticsService {
+    List<ItemUtilizationDto> getOwnerItems(Long ownerId, LocalDate from, LocalDate to);
+
+    List<UtilizationPointDto> getItemUtilization(Long itemId, Long ownerId, LocalDate from, LocalDate to,
+                                                 Granularity granularity);
+}
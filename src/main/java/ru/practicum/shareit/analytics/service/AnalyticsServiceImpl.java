@@ -0,0 +1,105 @@
+package ru.practicum.shareit.analytics.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.analytics.dto.ItemUtilizationDto;
+import ru.practicum.shareit.analytics.dto.UtilizationPointDto;
+import ru.practicum.shareit.analytics.model.Granularity;
+import ru.practicum.shareit.analytics.model.ItemDailyStats;
+import ru.practicum.shareit.analytics.storage.ItemDailyStatsStorage;
+import ru.practicum.shareit.analytics.storage.ItemUsage;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.shard.ShardKey;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AnalyticsServiceImpl implements AnalyticsService {
+    private static final double MINUTES_PER_HOUR = 60.0;
+    private static final double MINUTES_PER_DAY = 24 * 60.0;
+
+    private final ItemDailyStatsStorage statsStorage;
+    private final ItemStorage itemStorage;
+    private final AnalyticsProperties properties;
+
+    @Override
+    public List<ItemUtilizationDto> getOwnerItems(@ShardKey Long ownerId, LocalDate from, LocalDate to) {
+        long days = validateRange(from, to);
+
+        List<ItemUsage> usages = statsStorage.summarizeByOwnerId(ownerId, from, to);
+        List<ItemUtilizationDto> result = new ArrayList<>(usages.size());
+        for (ItemUsage usage : usages) {
+            result.add(new ItemUtilizationDto(usage.getItemId(), usage.getName(), usage.getBookings(),
+                    usage.getBookedMinutes() / MINUTES_PER_HOUR, utilization(usage.getBookedMinutes(), days)));
+        }
+        return result;
+    }
+
+    @Override
+    public List<UtilizationPointDto> getItemUtilization(@ShardKey Long itemId, Long ownerId, LocalDate from,
+                                                        LocalDate to, Granularity granularity) {
+        validateRange(from, to);
+        validateOwner(itemId, ownerId);
+
+        List<ItemDailyStats> days = statsStorage.findAllByItemIdAndDateBetweenOrderByDate(itemId, from, to);
+        List<UtilizationPointDto> result = new ArrayList<>();
+        int next = 0;
+        for (LocalDate periodStart = from; !periodStart.isAfter(to); ) {
+            LocalDate periodEnd = periodEnd(periodStart, to, granularity);
+            long bookings = 0;
+            long minutes = 0;
+            while (next < days.size() && !days.get(next).getDate().isAfter(periodEnd)) {
+                bookings += days.get(next).getBookings();
+                minutes += days.get(next).getBookedMinutes();
+                next++;
+            }
+            long periodDays = ChronoUnit.DAYS.between(periodStart, periodEnd) + 1;
+            result.add(new UtilizationPointDto(periodStart, bookings, minutes / MINUTES_PER_HOUR,
+                    utilization(minutes, periodDays)));
+            periodStart = periodEnd.plusDays(1);
+        }
+        return result;
+    }
+
+    private static LocalDate periodEnd(LocalDate periodStart, LocalDate to, Granularity granularity) {
+        LocalDate end = granularity == Granularity.WEEK
+                ? periodStart.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY))
+                : periodStart;
+        return end.isAfter(to) ? to : end;
+    }
+
+    private static double utilization(long minutes, long days) {
+        return Math.min(1.0, minutes / (days * MINUTES_PER_DAY));
+    }
+
+    private long validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new ValidationException("Range start must not be after range end");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > properties.getMaxRangeDays()) {
+            throw new ValidationException("Range must not exceed " + properties.getMaxRangeDays() + " days");
+        }
+        return days;
+    }
+
+    private void validateOwner(Long itemId, Long ownerId) {
+        Item item = itemStorage.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item with id " + itemId + " was not found"));
+        if (!Objects.equals(item.getOwner().getId(), ownerId)) {
+            throw new NotFoundException("Item with id " + itemId + " was not found");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.analytics.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Splits a booking into the per-day contributions stored in {@code item_daily_stats}: the booking is counted on
+ * its start day and its minutes are attributed to every day it covers.
+ */
+final class DailyUsage {
+
+    private DailyUsage() {
+    }
+
+    static void split(LocalDateTime start, LocalDateTime end, DayConsumer consumer) {
+        LocalDate day = start.toLocalDate();
+        LocalDateTime dayStart = day.atStartOfDay();
+        boolean first = true;
+        while (dayStart.isBefore(end)) {
+            LocalDateTime nextDayStart = dayStart.plusDays(1);
+            LocalDateTime from = start.isAfter(dayStart) ? start : dayStart;
+            LocalDateTime to = end.isBefore(nextDayStart) ? end : nextDayStart;
+            long minutes = Duration.between(from, to).toMinutes();
+            if (first || minutes > 0) {
+                consumer.accept(day, first ? 1 : 0, minutes);
+            }
+            first = false;
+            day = day.plusDays(1);
+            dayStart = nextDayStart;
+        }
+    }
+
+    @FunctionalInterface
+    interface DayConsumer {
+        void accept(LocalDate day, int bookings, long minutes);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.analytics.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.analytics.model.ItemDayId;
+import ru.practicum.shareit.analytics.storage.ApprovedPeriod;
+import ru.practicum.shareit.analytics.storage.ItemDailyStatsStorage;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds {@code item_daily_stats} from approved bookings, including archived ones.
+ * <p>
+ * Items are processed in id order in batches, each in its own transaction that locks the items of the batch,
+ * drops their roll-ups and writes them again from the bookings. {@link ItemStatsRecorder} locks the item before
+ * recording an approval, so an approval either commits before the batch reads the bookings and is counted by
+ * the rebuild, or waits for the batch to commit and is added on top of it; it is never counted twice or lost.
+ */
+@Slf4j
+@Component
+public class ItemStatsBackfill {
+
+    private final ItemDailyStatsStorage statsStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsProperties properties;
+    private final ShardRouter shardRouter;
+
+    public ItemStatsBackfill(ItemDailyStatsStorage statsStorage,
+                             TransactionTemplate transactionTemplate,
+                             AnalyticsProperties properties,
+                             ShardRouter shardRouter) {
+        this.statsStorage = statsStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+    }
+
+    public Result run() {
+        int[] totals = new int[2];
+        shardRouter.forEachShard(() -> {
+            Result result = runShard();
+            totals[0] += result.items();
+            totals[1] += result.rows();
+        });
+        log.info("Item stats backfill: {} items, {} daily rows", totals[0], totals[1]);
+        return new Result(totals[0], totals[1]);
+    }
+
+    private Result runShard() {
+        long afterId = 0;
+        int items = 0;
+        int rows = 0;
+        while (true) {
+            List<Long> itemIds = statsStorage.findItemIdsAfter(afterId, properties.getBackfillBatchSize());
+            if (itemIds.isEmpty()) {
+                break;
+            }
+            Integer written = transactionTemplate.execute(status -> rebuild(itemIds));
+            items += itemIds.size();
+            rows += written;
+            afterId = itemIds.get(itemIds.size() - 1);
+        }
+        return new Result(items, rows);
+    }
+
+    private int rebuild(List<Long> itemIds) {
+        statsStorage.lockForRebuild(itemIds);
+        statsStorage.deleteAllByItemIdIn(itemIds);
+
+        Map<ItemDayId, long[]> totals = new HashMap<>();
+        for (ApprovedPeriod period : statsStorage.findApprovedPeriodsByItemIdIn(itemIds)) {
+            Long itemId = period.getItemId();
+            DailyUsage.split(period.getStart(), period.getEnd(), (day, bookings, minutes) -> {
+                long[] total = totals.computeIfAbsent(new ItemDayId(itemId, day), key -> new long[2]);
+                total[0] += bookings;
+                total[1] += minutes;
+            });
+        }
+        for (Map.Entry<ItemDayId, long[]> entry : totals.entrySet()) {
+            ItemDayId id = entry.getKey();
+            statsStorage.addToDay(id.getItemId(), id.getDate(), (int) entry.getValue()[0], entry.getValue()[1]);
+        }
+        return totals.size();
+    }
+
+    public record Result(int items, int rows) {
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.analytics.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "itemstats")
+@RequiredArgsConstructor
+public class ItemStatsEndpoint {
+
+    private final ItemStatsBackfill backfill;
+
+    @WriteOperation
+    public ItemStatsBackfill.Result backfill() {
+        return backfill.run();
+    }
+}
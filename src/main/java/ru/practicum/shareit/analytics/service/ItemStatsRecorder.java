@@ -0,0 +1,27 @@
+package ru.practicum.shareit.analytics.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.analytics.storage.ItemDailyStatsStorage;
+import ru.practicum.shareit.booking.model.Booking;
+
+@Component
+@RequiredArgsConstructor
+public class ItemStatsRecorder {
+
+    private final ItemDailyStatsStorage statsStorage;
+    private final AnalyticsProperties properties;
+
+    /**
+     * Adds an approved booking to the daily roll-ups of its item. Must run in the approving transaction.
+     */
+    public void onBookingApproved(Booking booking) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Long itemId = booking.getItem().getId();
+        statsStorage.lockForRecording(itemId);
+        DailyUsage.split(booking.getStart(), booking.getEnd(),
+                (day, bookings, minutes) -> statsStorage.addToDay(itemId, day, bookings, minutes));
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.analytics.storage;
+
+import java.time.LocalDateTime;
+
+public interface ApprovedPeriod {
+    Long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.analytics.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.analytics.model.ItemDailyStats;
+import ru.practicum.shareit.analytics.model.ItemDayId;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemDailyStatsStorage extends JpaRepository<ItemDailyStats, ItemDayId>,
+        ItemDailyStatsWriteStorage {
+
+    @Query(value = "select i.id as \"itemId\", i.name as \"name\", " +
+            "coalesce(sum(s.bookings), 0) as \"bookings\", coalesce(sum(s.booked_minutes), 0) as \"bookedMinutes\" " +
+            "from items i left join item_daily_stats s " +
+            "on s.item_id = i.id and s.stat_date between :from and :to " +
+            "where i.owner_id = :ownerId group by i.id, i.name order by i.id", nativeQuery = true)
+    List<ItemUsage> summarizeByOwnerId(@Param("ownerId") Long ownerId,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+
+    List<ItemDailyStats> findAllByItemIdAndDateBetweenOrderByDate(Long itemId, LocalDate from, LocalDate to);
+
+    @Query(value = "select id from items where id > :afterId order by id limit :limit", nativeQuery = true)
+    List<Long> findItemIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Query(value = "select item_id as \"itemId\", start_time as \"start\", end_time as \"end\" from bookings " +
+            "where item_id in :itemIds and status = 'APPROVED' " +
+            "union all " +
+            "select item_id as \"itemId\", start_time as \"start\", end_time as \"end\" from bookings_archive " +
+            "where item_id in :itemIds and status = 'APPROVED'", nativeQuery = true)
+    List<ApprovedPeriod> findApprovedPeriodsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @Query("delete from ItemDailyStats as s where s.itemId in :itemIds")
+    int deleteAllByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.analytics.storage;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface ItemDailyStatsWriteStorage {
+
+    /**
+     * Adds to the day's roll-up of the item, creating the row if needed. Safe to call concurrently for the same
+     * item and day.
+     */
+    void addToDay(Long itemId, LocalDate date, int bookings, long minutes);
+
+    /**
+     * Locks the item against a concurrent rebuild of its roll-ups. Recording approvals of the same item does not
+     * block each other.
+     */
+    void lockForRecording(Long itemId);
+
+    /**
+     * Locks the items against recording until the end of the transaction, so their roll-ups can be rebuilt.
+     */
+    void lockForRebuild(Collection<Long> itemIds);
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.analytics.storage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Platform-specific writes to {@code item_daily_stats}.
+ * <p>
+ * On Postgres the upsert is {@code INSERT ... ON CONFLICT DO UPDATE}, which unlike {@code MERGE} never fails
+ * with a unique violation when two approvals insert the same day at once. Recording takes {@code FOR KEY SHARE}
+ * on the item, which only conflicts with the {@code FOR UPDATE} taken by a rebuild. H2, used in tests, has
+ * neither, so there the upsert is a {@code MERGE} and both sides lock the item {@code FOR UPDATE}.
+ */
+public class ItemDailyStatsWriteStorageImpl implements ItemDailyStatsWriteStorage {
+
+    private static final String UPSERT_POSTGRESQL = "insert into item_daily_stats " +
+            "(item_id, stat_date, bookings, booked_minutes) values (:itemId, :date, :bookings, :minutes) " +
+            "on conflict (item_id, stat_date) do update set " +
+            "bookings = item_daily_stats.bookings + excluded.bookings, " +
+            "booked_minutes = item_daily_stats.booked_minutes + excluded.booked_minutes";
+    private static final String UPSERT_H2 = "merge into item_daily_stats as s " +
+            "using (values (cast(:itemId as int), cast(:date as date), cast(:bookings as int), " +
+            "cast(:minutes as bigint))) as v (item_id, stat_date, bookings, booked_minutes) " +
+            "on s.item_id = v.item_id and s.stat_date = v.stat_date " +
+            "when matched then update set bookings = s.bookings + v.bookings, " +
+            "booked_minutes = s.booked_minutes + v.booked_minutes " +
+            "when not matched then insert (item_id, stat_date, bookings, booked_minutes) " +
+            "values (v.item_id, v.stat_date, v.bookings, v.booked_minutes)";
+    private static final String LOCK_ITEMS = "select id from items where id in :itemIds order by id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.sql.init.platform:postgresql}")
+    private String platform;
+
+    @Override
+    public void addToDay(Long itemId, LocalDate date, int bookings, long minutes) {
+        entityManager.createNativeQuery(isPostgres() ? UPSERT_POSTGRESQL : UPSERT_H2)
+                .setParameter("itemId", itemId)
+                .setParameter("date", date)
+                .setParameter("bookings", bookings)
+                .setParameter("minutes", minutes)
+                .executeUpdate();
+    }
+
+    @Override
+    public void lockForRecording(Long itemId) {
+        lock(LOCK_ITEMS + (isPostgres() ? " for key share" : " for update"), List.of(itemId));
+    }
+
+    @Override
+    public void lockForRebuild(Collection<Long> itemIds) {
+        lock(LOCK_ITEMS + " for update", itemIds);
+    }
+
+    private void lock(String sql, Collection<Long> itemIds) {
+        entityManager.createNativeQuery(sql)
+                .setParameter("itemIds", itemIds)
+                .getResultList();
+    }
+
+    private boolean isPostgres() {
+        return "postgresql".equals(platform);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.analytics.storage;
+
+public interface ItemUsage {
+    Long getItemId();
+
+    String getName();
+
+    Long getBookings();
+
+    Long getBookedMinutes();
+}
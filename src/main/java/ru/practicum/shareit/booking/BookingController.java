@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,10 +14,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.model.enums.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.FieldSelection;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -46,13 +51,40 @@ public class BookingController {
 
     @GetMapping
     public List<BookingDtoResponse> findAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-        return bookingService.getUserBookingsByState(userId, state);
+                                                  @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                  @RequestParam(defaultValue = "0") int from,
+                                                  @RequestParam(required = false) Integer size,
+                                                  @RequestParam(required = false) String fields) {
+        return bookingService.getUserBookingsByState(userId, state, from, size,
+                FieldSelection.parse(fields, BookingDtoResponse.FIELDS));
     }
 
     @GetMapping("/owner")
     public List<BookingDtoResponse> findAllByUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                       @RequestParam(name = "state", defaultValue = "ALL") BookingState state) {
-        return bookingService.getUserItemsBookingsByState(userId, state);
+                                                       @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                       @RequestParam(defaultValue = "0") int from,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @RequestParam(required = false) String fields) {
+        return bookingService.getUserItemsBookingsByState(userId, state, from, size,
+                FieldSelection.parse(fields, BookingDtoResponse.FIELDS));
+    }
+
+    @GetMapping("/counts")
+    public Map<BookingState, Long> countByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.countUserBookingsByState(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public Map<BookingState, Long> countByUserItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.countUserItemsBookingsByState(userId);
+    }
+
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getAvailability(@RequestParam List<Long> itemIds,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime to) {
+        return bookingService.getAvailability(itemIds, from, to);
     }
 }
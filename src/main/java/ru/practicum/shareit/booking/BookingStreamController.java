@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.booking.service.BookingStreamService;
+
+/**
+ * Non-blocking variants of the booking listings, selected with {@code Accept: application/x-ndjson}.
+ */
+@RestController
+@RequestMapping(path = "/bookings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.reactive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BookingStreamController {
+
+    private final BookingStreamService bookingStreamService;
+
+    @GetMapping
+    public Flux<BookingDtoResponse> streamAllByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                    @RequestParam(defaultValue = "0") int from,
+                                                    @RequestParam(required = false) Integer size) {
+        return bookingStreamService.streamUserBookingsByState(userId, state, from, size);
+    }
+
+    @GetMapping("/owner")
+    public Flux<BookingDtoResponse> streamAllByUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @RequestParam(name = "state", defaultValue = "ALL") BookingState state,
+                                                         @RequestParam(defaultValue = "0") int from,
+                                                         @RequestParam(required = false) Integer size) {
+        return bookingStreamService.streamUserItemsBookingsByState(userId, state, from, size);
+    }
+}
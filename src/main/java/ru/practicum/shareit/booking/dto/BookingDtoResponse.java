@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,11 +9,16 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(BookingDtoResponse.FIELD_FILTER)
 public class BookingDtoResponse {
+    public static final String FIELD_FILTER = "bookingFields";
+    public static final Set<String> FIELDS = Set.of("id", "item", "booker", "status", "start", "end");
+
     Long id;
     Item item;
     User booker;
@@ -3,13 +3,20 @@ package ru.practicum.shareit.booking.mapper;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.booking.dto.TimeIntervalDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.enums.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @UtilityClass
 public class BookingMapper {
@@ -24,6 +31,25 @@ public class BookingMapper {
         return booking;
     }
 
+    public Booking mapArchivedToBooking(ArchivedBooking archived) {
+        Booking booking = new Booking();
+        booking.setId(archived.getId());
+        booking.setStatus(archived.getStatus());
+        booking.setUser(archived.getUser());
+        booking.setItem(archived.getItem());
+        booking.setStart(archived.getStart());
+        booking.setEnd(archived.getEnd());
+        return booking;
+    }
+
+    public List<Booking> mapArchivedToBooking(List<ArchivedBooking> archived) {
+        List<Booking> bookings = new ArrayList<>(archived.size());
+        for (int i = 0, size = archived.size(); i < size; i++) {
+            bookings.add(mapArchivedToBooking(archived.get(i)));
+        }
+        return bookings;
+    }
+
     public BookingDtoResponse mapBookingToDto(Booking booking) {
         BookingDtoResponse dto = new BookingDtoResponse();
         dto.setId(booking.getId());
@@ -35,11 +61,46 @@ public class BookingMapper {
         return dto;
     }
 
-    public static List<BookingDtoResponse> mapBookingToDto(Iterable<Booking> bookings) {
-        List<BookingDtoResponse> dtos = new ArrayList<>();
-        for (Booking booking : bookings) {
-            dtos.add(mapBookingToDto(booking));
+    public static List<BookingDtoResponse> mapBookingToDto(List<Booking> bookings) {
+        List<BookingDtoResponse> dtos = new ArrayList<>(bookings.size());
+        for (int i = 0, size = bookings.size(); i < size; i++) {
+            dtos.add(mapBookingToDto(bookings.get(i)));
         }
         return dtos;
     }
-}
\ No newline at end of file
+
+    public Map<Long, List<Booking>> groupByItemId(List<Booking> bookings, int expectedItems) {
+        Map<Long, List<Booking>> groups = HashMap.newHashMap(expectedItems);
+        for (int i = 0, size = bookings.size(); i < size; i++) {
+            Booking booking = bookings.get(i);
+            Long itemId = booking.getItem().getId();
+            List<Booking> group = groups.get(itemId);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(itemId, group);
+            }
+            group.add(booking);
+        }
+        return groups;
+    }
+
+    public ItemAvailabilityDto mapToAvailabilityDto(Long itemId, long[] busy, LocalDateTime from, LocalDateTime to) {
+        List<TimeIntervalDto> busyIntervals = new ArrayList<>(busy.length / 2);
+        List<TimeIntervalDto> freeIntervals = new ArrayList<>(busy.length / 2 + 1);
+
+        LocalDateTime freeStart = from;
+        for (int i = 0; i < busy.length; i += 2) {
+            LocalDateTime start = LocalDateTime.ofEpochSecond(busy[i], 0, ZoneOffset.UTC);
+            LocalDateTime end = LocalDateTime.ofEpochSecond(busy[i + 1], 0, ZoneOffset.UTC);
+            if (freeStart.isBefore(start)) {
+                freeIntervals.add(new TimeIntervalDto(freeStart, start));
+            }
+            busyIntervals.add(new TimeIntervalDto(start, end));
+            freeStart = end;
+        }
+        if (freeStart.isBefore(to)) {
+            freeIntervals.add(new TimeIntervalDto(freeStart, to));
+        }
+        return new ItemAvailabilityDto(itemId, busyIntervals, freeIntervals);
+    }
+}
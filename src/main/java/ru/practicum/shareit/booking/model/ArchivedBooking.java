@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking moved into {@code bookings_archive} by the lifecycle processor. Rows are only ever inserted and
+ * deleted with native statements, so the entity is read-only.
+ */
+@Entity
+@Immutable
+@Table(name = "bookings_archive")
+@Data
+@NoArgsConstructor
+public class ArchivedBooking {
+
+    @Id
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    BookingStatus status;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    User user;
+
+    @ManyToOne
+    @JoinColumn(name = "item_id", nullable = false)
+    Item item;
+
+    @Column(name = "start_time")
+    LocalDateTime start;
+
+    @Column(name = "end_time")
+    LocalDateTime end;
+
+    @Column(name = "archived_at")
+    LocalDateTime archivedAt;
+}
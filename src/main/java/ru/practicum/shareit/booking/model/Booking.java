@@ -36,4 +36,7 @@ public class Booking {
 
     @Column(name = "end_time")
     LocalDateTime end;
+
+    @Version
+    Long version;
 }
\ No newline at end of file
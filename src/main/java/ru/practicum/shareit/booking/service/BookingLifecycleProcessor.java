@@ -0,0 +1,169 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.AvailabilityIndex;
+import ru.practicum.shareit.booking.storage.BookingRef;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.cache.CacheInvalidationBus;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxWriter;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background processor that expires {@code WAITING} bookings whose start has passed and moves old bookings
+ * into {@code bookings_archive}.
+ * <p>
+ * Work is done in bounded batches, each in its own transaction. Candidate rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so several nodes can run the processor at the same time without blocking
+ * each other or handling the same booking twice. Every expired and archived booking gets an outbox event in the
+ * transaction of its batch.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.booking.lifecycle", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class BookingLifecycleProcessor {
+
+    private final BookingStorage bookingStorage;
+    private final AvailabilityIndex availabilityIndex;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingLifecycleProperties properties;
+    private final ShardRouter shardRouter;
+    private final Counter expiredCounter;
+    private final Counter archivedCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public BookingLifecycleProcessor(BookingStorage bookingStorage,
+                                     AvailabilityIndex availabilityIndex,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     OutboxWriter outboxWriter,
+                                     TransactionTemplate transactionTemplate,
+                                     BookingLifecycleProperties properties,
+                                     ShardRouter shardRouter,
+                                     MeterRegistry meterRegistry) {
+        this.bookingStorage = bookingStorage;
+        this.availabilityIndex = availabilityIndex;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.expiredCounter = meterRegistry.counter("shareit.booking.lifecycle.expired");
+        this.archivedCounter = meterRegistry.counter("shareit.booking.lifecycle.archived");
+        meterRegistry.gauge("shareit.booking.lifecycle.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.interval:PT1M}")
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        AtomicLong lag = new AtomicLong();
+
+        shardRouter.forEachShard(() -> {
+            int expired = processBatches(() -> expireBatch(now));
+            int archived = processBatches(() -> archiveBatch(now, now.minus(properties.getArchiveAfter())));
+            lag.accumulateAndGet(lagSeconds(now), Math::max);
+
+            if (expired > 0 || archived > 0) {
+                log.info("Booking lifecycle run: {} expired, {} archived", expired, archived);
+            }
+        });
+        lagSeconds.set(lag.get());
+    }
+
+    private int processBatches(BatchOperation operation) {
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            int processed = operation.run();
+            total += processed;
+            if (processed < properties.getBatchSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int expireBatch(LocalDateTime now) {
+        Integer processed = transactionTemplate.execute(status -> {
+            List<BookingRef> bookings = bookingStorage.lockWaitingStartedBefore(now, properties.getBatchSize());
+            if (bookings.isEmpty()) {
+                return 0;
+            }
+            bookingStorage.updateStatusByIdIn(ids(bookings), BookingStatus.EXPIRED);
+            appendEvents(OutboxEventType.BOOKING_EXPIRED, bookings);
+            evictItems(bookings);
+            return bookings.size();
+        });
+        expiredCounter.increment(processed);
+        return processed;
+    }
+
+    private int archiveBatch(LocalDateTime now, LocalDateTime cutoff) {
+        Integer processed = transactionTemplate.execute(status -> {
+            List<BookingRef> bookings = bookingStorage.lockEndedBefore(cutoff, properties.getBatchSize());
+            if (bookings.isEmpty()) {
+                return 0;
+            }
+            List<Long> ids = ids(bookings);
+            bookingStorage.copyToArchiveByIdIn(ids, now);
+            bookingStorage.deleteAllByIdIn(ids);
+            appendEvents(OutboxEventType.BOOKING_ARCHIVED, bookings);
+            evictItems(bookings);
+            return bookings.size();
+        });
+        archivedCounter.increment(processed);
+        return processed;
+    }
+
+    private long lagSeconds(LocalDateTime now) {
+        LocalDateTime oldest = bookingStorage.findEarliestStartByStatusBefore(BookingStatus.WAITING, now);
+        return oldest == null ? 0 : Duration.between(oldest, now).toSeconds();
+    }
+
+    private List<Long> ids(List<BookingRef> bookings) {
+        List<Long> ids = new ArrayList<>(bookings.size());
+        for (BookingRef booking : bookings) {
+            ids.add(booking.getId());
+        }
+        return ids;
+    }
+
+    private void appendEvents(OutboxEventType type, List<BookingRef> bookings) {
+        for (BookingRef booking : bookings) {
+            outboxWriter.append(type, booking.getId(), Map.of("id", booking.getId(), "itemId", booking.getItemId()));
+        }
+    }
+
+    private void evictItems(List<BookingRef> bookings) {
+        Set<Long> itemIds = new HashSet<>();
+        for (BookingRef booking : bookings) {
+            if (itemIds.add(booking.getItemId())) {
+                availabilityIndex.evict(booking.getItemId());
+                cacheInvalidationBus.publish(CacheRegion.ITEM_CALENDAR, booking.getItemId());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchOperation {
+        int run();
+    }
+}
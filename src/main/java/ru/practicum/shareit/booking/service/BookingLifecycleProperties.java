@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.lifecycle")
+public class BookingLifecycleProperties {
+
+    private boolean enabled = true;
+
+    private int batchSize = 500;
+
+    private int maxBatchesPerRun = 20;
+
+    private Duration archiveAfter = Duration.ofDays(365);
+}
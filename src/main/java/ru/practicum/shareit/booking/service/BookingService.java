@@ -2,9 +2,13 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.common.FieldSelection;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
 
@@ -14,7 +18,15 @@ public interface BookingService {
 
     BookingDtoResponse findById(Long userId, Long bookingId);
 
-    List<BookingDtoResponse> getUserBookingsByState(Long userId, BookingState state);
+    List<BookingDtoResponse> getUserBookingsByState(Long userId, BookingState state, int from, Integer size,
+                                                    FieldSelection fields);
 
-    List<BookingDtoResponse> getUserItemsBookingsByState(Long userId, BookingState state);
+    List<BookingDtoResponse> getUserItemsBookingsByState(Long userId, BookingState state, int from, Integer size,
+                                                         FieldSelection fields);
+
+    Map<BookingState, Long> countUserBookingsByState(Long userId);
+
+    Map<BookingState, Long> countUserItemsBookingsByState(Long userId);
+
+    List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
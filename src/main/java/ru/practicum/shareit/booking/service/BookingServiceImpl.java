@@ -2,100 +2,196 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.analytics.service.ItemStatsRecorder;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.enums.BookingState;
 import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.AvailabilityIndex;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.RentalEligibilityIndex;
+import ru.practicum.shareit.cache.CacheInvalidationBus;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.common.FieldSelection;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemPopularity;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxWriter;
+import ru.practicum.shareit.shard.ShardContext;
+import ru.practicum.shareit.shard.ShardKey;
+import ru.practicum.shareit.shard.ShardRouter;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_AVAILABILITY_ITEMS = 100;
+    private static final Comparator<Booking> NEWEST_FIRST = Comparator.comparing(Booking::getStart)
+            .thenComparing(Booking::getId)
+            .reversed();
 
     private final BookingStorage bookingStorage;
     private final UserStorage userStorage;
     private final ItemStorage itemStorage;
+    private final AvailabilityIndex availabilityIndex;
+    private final RentalEligibilityIndex rentalEligibilityIndex;
+    private final ItemStatsRecorder itemStatsRecorder;
+    private final ItemPopularity itemPopularity;
+    private final OutboxWriter outboxWriter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ShardRouter shardRouter;
 
     @Override
     @Transactional
-    public BookingDtoResponse create(BookingDtoRequest dto, Long userId) {
+    public BookingDtoResponse create(@ShardKey(property = "itemId") BookingDtoRequest dto, Long userId) {
         User user = getUser(userId);
         Item item = getItem(dto.getItemId());
 
         validateItemAvailable(item);
 
         Booking booking = bookingStorage.save(BookingMapper.mapDtoToNewBooking(dto, user, item));
-        return BookingMapper.mapBookingToDto(booking);
+        availabilityIndex.onBookingSaved(booking);
+        cacheInvalidationBus.publish(CacheRegion.ITEM_CALENDAR, item.getId());
+
+        BookingDtoResponse response = BookingMapper.mapBookingToDto(booking);
+        outboxWriter.append(OutboxEventType.BOOKING_CREATED, booking.getId(), response);
+        return response;
     }
 
     @Override
-    public BookingDtoResponse update(Long bookingId, Boolean status, Long userId) {
+    @Transactional
+    public BookingDtoResponse update(@ShardKey Long bookingId, Boolean status, Long userId) {
         Booking booking = getBooking(bookingId);
         validateOwner(booking, userId);
         validateWaitingStatus(booking);
 
-        booking.setStatus(status ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        bookingStorage.save(booking);
+        BookingStatus newStatus = status ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingStorage.compareAndSetStatus(bookingId, booking.getStart(), BookingStatus.WAITING, newStatus) == 0) {
+            throw new ConflictException("Booking with id " + bookingId + " was concurrently approved or rejected");
+        }
+        // The update bypassed the loaded entity and cleared the persistence context, so read back what it wrote.
+        booking = getBooking(bookingId);
+        availabilityIndex.onBookingSaved(booking);
+        rentalEligibilityIndex.onBookingSaved(booking);
+        cacheInvalidationBus.publish(CacheRegion.ITEM_CALENDAR, booking.getItem().getId());
+        if (newStatus == BookingStatus.APPROVED) {
+            cacheInvalidationBus.publish(CacheRegion.USER_RENTALS, booking.getUser().getId());
+            itemStatsRecorder.onBookingApproved(booking);
+            itemPopularity.onBookingApproved(booking.getItem().getId(), LocalDateTime.now());
+        }
 
-        return BookingMapper.mapBookingToDto(booking);
+        BookingDtoResponse response = BookingMapper.mapBookingToDto(booking);
+        outboxWriter.append(OutboxEventType.BOOKING_STATUS_CHANGED, booking.getId(), response);
+        return response;
     }
 
     @Override
-    public BookingDtoResponse findById(Long bookingId, Long userId) {
+    public BookingDtoResponse findById(@ShardKey Long bookingId, Long userId) {
         validateUserExists(userId);
         Booking booking = getBooking(bookingId);
         return BookingMapper.mapBookingToDto(booking);
     }
 
     @Override
-    public List<BookingDtoResponse> getUserBookingsByState(Long userId, BookingState state) {
+    public List<BookingDtoResponse> getUserBookingsByState(Long userId, BookingState state, int from, Integer size,
+                                                           FieldSelection fields) {
         validateUserExists(userId);
-        LocalDateTime now = LocalDateTime.now();
+        validatePage(from, size);
 
-        List<Booking> bookings = switch (state) {
-            case CURRENT -> bookingStorage.findAllByUserIdAndEndAfterOrderByStartDesc(userId, now);
-            case PAST -> bookingStorage.findAllByUserIdAndEndBeforeOrderByStartDesc(userId, now);
-            case FUTURE -> bookingStorage.findAllByUserIdAndStartAfterOrderByStartDesc(userId, now);
-            case WAITING -> bookingStorage.findAllByUserIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
-            case REJECTED -> bookingStorage.findAllByUserIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED);
-            default -> bookingStorage.findAllByUserId(userId);
-        };
+        LocalDateTime now = LocalDateTime.now();
+        boolean fetchAssociations = fields.includesAny("item", "booker");
+        if (shardRouter.shardCount() == 1) {
+            return BookingMapper.mapBookingToDto(bookingStorage.findAllByBookerAndState(userId, state, now, from, size,
+                    fetchAssociations));
+        }
 
-        return bookings.stream()
-                .map(BookingMapper::mapBookingToDto)
-                .collect(Collectors.toList());
+        // A booker's bookings are spread over the shards of the booked items: take the first from + size of
+        // every shard and page the merged list.
+        Integer limit = size == null ? null : from + size;
+        List<Booking> bookings = shardRouter.gather(() -> bookingStorage.findAllByBookerAndState(userId, state, now,
+                0, limit, fetchAssociations));
+        bookings.sort(NEWEST_FIRST);
+        int end = limit == null ? bookings.size() : Math.min(limit, bookings.size());
+        return BookingMapper.mapBookingToDto(from >= end ? List.of() : bookings.subList(from, end));
     }
 
     @Override
-    public List<BookingDtoResponse> getUserItemsBookingsByState(Long userId, BookingState state) {
+    public List<BookingDtoResponse> getUserItemsBookingsByState(@ShardKey Long userId, BookingState state, int from,
+                                                                Integer size, FieldSelection fields) {
         validateUserExists(userId);
+        validatePage(from, size);
 
+        List<Booking> bookings = bookingStorage.findAllByOwnerAndState(userId, state, LocalDateTime.now(), from, size,
+                fields.includesAny("item", "booker"));
+        return BookingMapper.mapBookingToDto(bookings);
+    }
+
+    @Override
+    public Map<BookingState, Long> countUserBookingsByState(Long userId) {
+        validateUserExists(userId);
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> result =  switch (state) {
-            case CURRENT -> bookingStorage.findAllByUserIdAndEndAfterOrderByStartDesc(userId, now);
-            case PAST -> bookingStorage.findAllByUserIdAndEndBeforeOrderByStartDesc(userId, now);
-            case FUTURE -> bookingStorage.findAllByUserIdAndStartAfterOrderByStartDesc(userId, now);
-            case WAITING -> bookingStorage.findAllByUserIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
-            case REJECTED -> bookingStorage.findAllByUserIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED);
-            default -> bookingStorage.findAllByUserId(userId);
-        };
+        if (shardRouter.shardCount() == 1) {
+            return bookingStorage.countByBookerAndStates(userId, now);
+        }
 
-        return BookingMapper.mapBookingToDto(result);
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        for (Map<BookingState, Long> shardCounts : shardRouter.gather(
+                () -> List.of(bookingStorage.countByBookerAndStates(userId, now)))) {
+            shardCounts.forEach((state, count) -> counts.merge(state, count, Long::sum));
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<BookingState, Long> countUserItemsBookingsByState(@ShardKey Long userId) {
+        validateUserExists(userId);
+        return bookingStorage.countByOwnerAndStates(userId, LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        Set<Long> ids = new LinkedHashSet<>(itemIds);
+        if (ids.size() > MAX_AVAILABILITY_ITEMS) {
+            throw new ValidationException("At most " + MAX_AVAILABILITY_ITEMS + " item ids can be requested at once");
+        }
+        // Only existing items may enter the availability index, otherwise random ids would fill it up.
+        Set<Long> missing = new HashSet<>(ids);
+        shardRouter.gather(() -> itemStorage.findIdsByIdIn(ids)).forEach(missing::remove);
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Items with ids " + missing + " were not found");
+        }
+
+        List<ItemAvailabilityDto> result = new ArrayList<>(ids.size());
+        for (Long itemId : ids) {
+            long[] busy = ShardContext.call(shardRouter.shardOf(itemId),
+                    () -> availabilityIndex.findBusy(itemId, from, to));
+            result.add(BookingMapper.mapToAvailabilityDto(itemId, busy, from, to));
+        }
+        return result;
     }
 
     private User getUser(Long userId) {
@@ -120,6 +216,21 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void validatePage(int from, Integer size) {
+        if (from < 0) {
+            throw new ValidationException("Parameter from must not be negative");
+        }
+        if (size != null && size <= 0) {
+            throw new ValidationException("Parameter size must be positive");
+        }
+    }
+
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Range start must be before range end");
+        }
+    }
+
     private Booking getBooking(Long bookingId) {
         return bookingStorage.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking with id " + bookingId + " was not found"));
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.booking.storage.ReactiveBookingReader;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.reactive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BookingStreamService {
+    private final ReactiveBookingReader bookingReader;
+
+    public Flux<BookingDtoResponse> streamUserBookingsByState(Long userId, BookingState state, int from,
+                                                              Integer size) {
+        validatePage(from, size);
+        LocalDateTime now = LocalDateTime.now();
+        return requireUser(userId)
+                .thenMany(bookingReader.findAllByBookerAndState(userId, state, now, from, size));
+    }
+
+    public Flux<BookingDtoResponse> streamUserItemsBookingsByState(Long userId, BookingState state, int from,
+                                                                   Integer size) {
+        validatePage(from, size);
+        LocalDateTime now = LocalDateTime.now();
+        return requireUser(userId)
+                .thenMany(bookingReader.findAllByOwnerAndState(userId, state, now, from, size));
+    }
+
+    private Mono<Void> requireUser(Long userId) {
+        return bookingReader.existsUserById(userId)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : Mono.error(new NotFoundException("User with id " + userId + " was not found")));
+    }
+
+    private void validatePage(int from, Integer size) {
+        if (from < 0) {
+            throw new ValidationException("Parameter from must not be negative");
+        }
+        if (size != null && size <= 0) {
+            throw new ValidationException("Parameter size must be positive");
+        }
+    }
+}
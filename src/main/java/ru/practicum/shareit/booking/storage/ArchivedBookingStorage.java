@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingStorage extends JpaRepository<ArchivedBooking, Long> {
+
+    /**
+     * Returns, for every item, the archived bookings with the latest start and the latest end. Those are the
+     * only archived rows that can still be an item's last booking.
+     */
+    @Query("select b from ArchivedBooking as b join fetch b.item join fetch b.user " +
+            "where b.item.id in :itemIds " +
+            "and (b.start = (select max(a.start) from ArchivedBooking as a where a.item.id = b.item.id) " +
+            "or b.end = (select max(a.end) from ArchivedBooking as a where a.item.id = b.item.id))")
+    List<ArchivedBooking> findLatestByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    boolean existsByUserIdAndItemIdAndStatusAndEndBefore(Long userId, Long itemId, BookingStatus status,
+                                                         LocalDateTime end);
+
+    @Query("select b.item.id as itemId, min(b.end) as end from ArchivedBooking as b " +
+            "where b.user.id = :userId and b.status = :status group by b.item.id")
+    List<RentalEnd> findRentalEndsByUserIdAndStatus(@Param("userId") Long userId,
+                                                    @Param("status") BookingStatus status);
+}
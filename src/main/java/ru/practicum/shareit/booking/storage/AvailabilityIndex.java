@@ -0,0 +1,182 @@
+package ru.practicum.shareit.booking.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.cache.CacheInvalidationListener;
+import ru.practicum.shareit.cache.CacheRegion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory per-item index of busy booking intervals.
+ * <p>
+ * Every item calendar is hydrated from {@link BookingStorage} on first access and then kept current by
+ * {@link #onBookingSaved(Booking)}. Overlapping bookings are merged into disjoint blocks stored as sorted
+ * arrays of epoch seconds, so a range lookup is a binary search followed by a scan of the matching blocks.
+ * At most {@code max-items} calendars are kept; the least recently used ones are dropped and hydrated again
+ * when next asked for. Callers must only ask for items that exist.
+ */
+@Component
+public class AvailabilityIndex implements CacheInvalidationListener {
+
+    private static final Set<BookingStatus> BUSY_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final long[] EMPTY = new long[0];
+
+    private final BookingStorage bookingStorage;
+    private final Cache<Long, ItemCalendar> calendars;
+
+    public AvailabilityIndex(BookingStorage bookingStorage, AvailabilityIndexProperties properties) {
+        this.bookingStorage = bookingStorage;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxItems())
+                .build();
+    }
+
+    /**
+     * Returns busy blocks of the item clipped to {@code [from, to)} as flattened {@code start, end} pairs
+     * of epoch seconds.
+     */
+    public long[] findBusy(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return calendars.get(itemId, this::hydrate).findBusy(toEpochSecond(from), toEpochSecond(to));
+    }
+
+    public void onBookingSaved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        boolean busy = BUSY_STATUSES.contains(booking.getStatus());
+        long start = toEpochSecond(booking.getStart());
+        long end = toEpochSecond(booking.getEnd());
+
+        afterCommit(() -> calendars.asMap().computeIfPresent(itemId, (id, calendar) -> {
+            if (busy) {
+                calendar.put(bookingId, start, end);
+            } else {
+                calendar.remove(bookingId);
+            }
+            return calendar;
+        }));
+    }
+
+    public void evict(Long itemId) {
+        afterCommit(() -> calendars.invalidate(itemId));
+    }
+
+    @Override
+    public void invalidate(CacheRegion region, Set<Long> ids) {
+        if (region == CacheRegion.ITEM_CALENDAR) {
+            calendars.invalidateAll(ids);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        calendars.invalidateAll();
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private ItemCalendar hydrate(Long itemId) {
+        ItemCalendar calendar = new ItemCalendar();
+        for (BookingPeriod period : bookingStorage.findAllPeriodsByItemIdAndStatusIn(itemId, BUSY_STATUSES)) {
+            calendar.put(period.getId(), toEpochSecond(period.getStart()), toEpochSecond(period.getEnd()));
+        }
+        return calendar;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class ItemCalendar {
+        private final Map<Long, long[]> bookings = new HashMap<>();
+        private volatile Blocks blocks = new Blocks(EMPTY, EMPTY);
+
+        synchronized void put(Long bookingId, long start, long end) {
+            bookings.put(bookingId, new long[]{start, end});
+            blocks = merge();
+        }
+
+        synchronized void remove(Long bookingId) {
+            if (bookings.remove(bookingId) != null) {
+                blocks = merge();
+            }
+        }
+
+        long[] findBusy(long from, long to) {
+            Blocks snapshot = blocks;
+            long[] starts = snapshot.starts;
+            long[] ends = snapshot.ends;
+
+            int first = firstEndingAfter(ends, from);
+            int last = first;
+            while (last < starts.length && starts[last] < to) {
+                last++;
+            }
+
+            long[] result = new long[(last - first) * 2];
+            for (int i = first, j = 0; i < last; i++, j += 2) {
+                result[j] = Math.max(starts[i], from);
+                result[j + 1] = Math.min(ends[i], to);
+            }
+            return result;
+        }
+
+        private Blocks merge() {
+            long[][] intervals = bookings.values().toArray(new long[0][]);
+            Arrays.sort(intervals, (a, b) -> Long.compare(a[0], b[0]));
+
+            long[] starts = new long[intervals.length];
+            long[] ends = new long[intervals.length];
+            int size = 0;
+            for (long[] interval : intervals) {
+                if (size > 0 && interval[0] <= ends[size - 1]) {
+                    ends[size - 1] = Math.max(ends[size - 1], interval[1]);
+                } else {
+                    starts[size] = interval[0];
+                    ends[size] = interval[1];
+                    size++;
+                }
+            }
+            return new Blocks(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+        }
+
+        private static int firstEndingAfter(long[] ends, long time) {
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private record Blocks(long[] starts, long[] ends) {
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.availability-index")
+public class AvailabilityIndexProperties {
+
+    private int maxItems = 10_000;
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains monthly range partitions of the Postgres {@code bookings} table.
+ * <p>
+ * Partitions for the current month and {@code months-ahead} following months are created in advance, so new
+ * bookings rarely land in {@code bookings_default}. Postgres refuses to create a partition while the default
+ * partition holds rows of its range, so in that case the default partition is detached, the partition created,
+ * the rows moved into it and the default reattached, all in one transaction. Partitions whose whole month is
+ * older than {@code retention-months} are detached and kept as standalone cold tables.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.booking.partitions", name = "enabled", havingValue = "true")
+public class BookingPartitionMaintainer {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("bookings_p(\\d{4})_(\\d{2})");
+
+    private static final String COLUMNS = "id, status, item_id, user_id, start_time, end_time, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingPartitionProperties properties;
+    private final ShardRouter shardRouter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        shardRouter.forEachShard(this::maintainShard);
+    }
+
+    private void maintainShard() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= properties.getMonthsAhead(); i++) {
+            createPartition(current.plusMonths(i));
+        }
+        detachPartitionsBefore(current.minusMonths(properties.getRetentionMonths()));
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                    partition);
+            if (Boolean.TRUE.equals(exists)) {
+                return;
+            }
+
+            String create = String.format("CREATE TABLE %s PARTITION OF bookings FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, from, to);
+            Boolean inDefault = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM bookings_default " +
+                    "WHERE start_time >= ?::date AND start_time < ?::date)", Boolean.class, from, to);
+            if (!Boolean.TRUE.equals(inDefault)) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+
+            jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION bookings_default");
+            jdbcTemplate.execute(create);
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM bookings_default " +
+                    "WHERE start_time >= ?::date AND start_time < ?::date RETURNING " + COLUMNS + ") " +
+                    "INSERT INTO bookings (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE bookings ATTACH PARTITION bookings_default DEFAULT");
+            log.info("Created booking partition {} and moved {} rows into it from bookings_default", partition,
+                    moved);
+        });
+    }
+
+    private void detachPartitionsBefore(YearMonth oldestKept) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'bookings'", String.class);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(oldestKept)) {
+                jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + partition);
+                log.info("Detached booking partition {} (older than {})", partition, oldestKept.atDay(1));
+            }
+        }
+    }
+
+    private String partitionName(YearMonth month) {
+        return String.format("bookings_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+}
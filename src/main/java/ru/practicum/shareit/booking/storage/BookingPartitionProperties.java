@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.partitions")
+public class BookingPartitionProperties {
+
+    private boolean enabled = false;
+
+    private int monthsAhead = 3;
+
+    private int retentionMonths = 24;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.storage;
+
+public interface BookingRef {
+    Long getId();
+
+    Long getItemId();
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.storage;
+
+import ru.practicum.shareit.common.VersionRollup;
+
+import java.time.LocalDateTime;
+
+public interface BookingRollup extends VersionRollup {
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.storage;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface BookingStateStorage {
+
+    /**
+     * Without {@code fetchAssociations} only the scalar columns are read and the returned bookings have no
+     * item or booker.
+     */
+    List<Booking> findAllByBookerAndState(Long bookerId, BookingState state, LocalDateTime now, int from, Integer size,
+                                          boolean fetchAssociations);
+
+    List<Booking> findAllByOwnerAndState(Long ownerId, BookingState state, LocalDateTime now, int from, Integer size,
+                                         boolean fetchAssociations);
+
+    Map<BookingState, Long> countByBookerAndStates(Long bookerId, LocalDateTime now);
+
+    Map<BookingState, Long> countByOwnerAndStates(Long ownerId, LocalDateTime now);
+}
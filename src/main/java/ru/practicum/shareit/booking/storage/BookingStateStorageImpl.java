@@ -0,0 +1,275 @@
+package ru.practicum.shareit.booking.storage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classifies bookings by {@link BookingState} with a single query template.
+ * <p>
+ * Each state only adds its own predicate to the party filter, so every list query is one range scan over the
+ * {@code (user_id, start_time)} or {@code (item_id, start_time)} index with ordering and limits done in SQL.
+ * Every time-based predicate bounds {@code start_time}, which lets Postgres prune monthly partitions.
+ * Counts for all states are computed in one pass over the party's bookings.
+ * <p>
+ * Archived bookings have all ended and are never {@code WAITING}, so only {@code ALL}, {@code PAST} and
+ * {@code REJECTED} read {@code bookings_archive} as well, and archived counts are added to the live ones.
+ * Lists are split at two keys, the newest archived booking and the oldest live one: live bookings newer than
+ * every archived one come first and archived bookings older than every live one come last, so both are paged
+ * in SQL straight from one source. Only the bookings between the two keys, normally the few long bookings that
+ * started before the newest archived one, are read from both sources and merged in memory.
+ */
+public class BookingStateStorageImpl implements BookingStateStorage {
+
+    private static final String LIVE = "Booking";
+    private static final String ARCHIVED = "ArchivedBooking";
+    private static final Comparator<Booking> NEWEST_FIRST = Comparator.comparing(Booking::getStart)
+            .thenComparing(Booking::getId)
+            .reversed();
+
+    private static final String FETCH = "select b from %s as b " +
+            "join fetch b.item as i " +
+            "join fetch i.owner " +
+            "left join fetch i.request as r " +
+            "left join fetch r.owner " +
+            "join fetch b.user as u ";
+    private static final String SCALARS = "select b.id, b.status, b.start, b.end from %s as b ";
+    private static final String KEY = "select b.start, b.id from %s as b ";
+    private static final String KEY_COUNT = "select count(b) from %s as b ";
+    private static final String BOOKER = "where u.id = :userId";
+    private static final String OWNER = "where i.owner.id = :userId";
+    private static final String SCALAR_BOOKER = "where b.user.id = :userId";
+    private static final String SCALAR_OWNER = "join b.item as i where i.owner.id = :userId";
+    private static final String ORDER = " order by b.start desc, b.id desc";
+    private static final String OLDEST_FIRST = " order by b.start, b.id";
+    private static final String NEWER = " and (b.start, b.id) > (:keyStart, :keyId)";
+    private static final String NOT_NEWER = " and (b.start, b.id) <= (:keyStart, :keyId)";
+    private static final String NOT_OLDER = " and (b.start, b.id) >= (:keyStart, :keyId)";
+    private static final String OLDER = " and (b.start, b.id) < (:keyStart, :keyId)";
+
+    private static final String COUNT = "select count(b), " +
+            "sum(case when b.start <= :now and b.end > :now then 1 else 0 end), " +
+            "sum(case when b.end < :now then 1 else 0 end), " +
+            "sum(case when b.start > :now then 1 else 0 end), " +
+            "sum(case when b.status = :waiting then 1 else 0 end), " +
+            "sum(case when b.status = :rejected then 1 else 0 end) " +
+            "from %s as b ";
+    private static final String COUNT_BOOKER = "where b.user.id = :userId";
+    private static final String COUNT_OWNER = "join b.item as i where i.owner.id = :userId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findAllByBookerAndState(Long bookerId, BookingState state, LocalDateTime now,
+                                                 int from, Integer size, boolean fetchAssociations) {
+        return findAllByState(new Listing(false, bookerId, state, now, fetchAssociations), from, size);
+    }
+
+    @Override
+    public List<Booking> findAllByOwnerAndState(Long ownerId, BookingState state, LocalDateTime now,
+                                                int from, Integer size, boolean fetchAssociations) {
+        return findAllByState(new Listing(true, ownerId, state, now, fetchAssociations), from, size);
+    }
+
+    @Override
+    public Map<BookingState, Long> countByBookerAndStates(Long bookerId, LocalDateTime now) {
+        return countByStates(COUNT_BOOKER, bookerId, now);
+    }
+
+    @Override
+    public Map<BookingState, Long> countByOwnerAndStates(Long ownerId, LocalDateTime now) {
+        return countByStates(COUNT_OWNER, ownerId, now);
+    }
+
+    private List<Booking> findAllByState(Listing listing, int from, Integer size) {
+        if (!readsArchive(listing.state())) {
+            return fetch(LIVE, listing, "", null, from, size);
+        }
+        Key newestArchived = boundary(ARCHIVED, listing, ORDER);
+        if (newestArchived == null) {
+            return fetch(LIVE, listing, "", null, from, size);
+        }
+        Key oldestLive = boundary(LIVE, listing, OLDEST_FIRST);
+        if (oldestLive == null) {
+            return fetch(ARCHIVED, listing, "", null, from, size);
+        }
+
+        List<Booking> bookings = fetch(LIVE, listing, NEWER, newestArchived, from, size);
+        if (size != null && bookings.size() == size) {
+            return bookings;
+        }
+        // A partial page means the newer live bookings ran out inside it; an empty one needs them counted.
+        long newer = bookings.isEmpty() && from > 0 ? count(LIVE, listing, NEWER, newestArchived) : from;
+        int skip = (int) Math.max(0, from - newer);
+        Integer missing = remaining(bookings, size);
+
+        // The first skip + missing merged rows need at most that many rows from each side of the overlap.
+        Integer window = missing == null ? null : skip + missing;
+        List<Booking> live = fetch(LIVE, listing, NOT_NEWER, newestArchived, 0, window);
+        List<Booking> archived = fetch(ARCHIVED, listing, NOT_OLDER, oldestLive, 0, window);
+        boolean overlapRead = window == null || (live.size() < window && archived.size() < window);
+        List<Booking> overlap = new ArrayList<>(live.size() + archived.size());
+        overlap.addAll(live);
+        overlap.addAll(archived);
+        bookings.addAll(page(overlap, skip, missing));
+
+        missing = remaining(bookings, size);
+        if (!overlapRead || (missing != null && missing == 0)) {
+            return bookings;
+        }
+        bookings.addAll(fetch(ARCHIVED, listing, OLDER, oldestLive, Math.max(0, skip - overlap.size()), missing));
+        return bookings;
+    }
+
+    private List<Booking> fetch(String entity, Listing listing, String keyset, Key key, int from, Integer size) {
+        if (!listing.fetchAssociations()) {
+            return fetchScalars(entity, listing, keyset, key, from, size);
+        }
+        if (ARCHIVED.equals(entity)) {
+            return BookingMapper.mapArchivedToBooking(
+                    fetchEntities(entity, ArchivedBooking.class, listing, keyset, key, from, size));
+        }
+        return fetchEntities(entity, Booking.class, listing, keyset, key, from, size);
+    }
+
+    private <T> List<T> fetchEntities(String entity, Class<T> type, Listing listing, String keyset, Key key,
+                                      int from, Integer size) {
+        TypedQuery<T> query = entityManager.createQuery(FETCH.formatted(entity) + listing.party()
+                + statePredicate(listing.state()) + keyset + ORDER, type);
+        return new ArrayList<>(bind(query, listing, key, from, size).getResultList());
+    }
+
+    private List<Booking> fetchScalars(String entity, Listing listing, String keyset, Key key,
+                                       int from, Integer size) {
+        TypedQuery<Object[]> query = entityManager.createQuery(SCALARS.formatted(entity) + listing.scalarParty()
+                + statePredicate(listing.state()) + keyset + ORDER, Object[].class);
+
+        List<Object[]> rows = bind(query, listing, key, from, size).getResultList();
+        List<Booking> bookings = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Booking booking = new Booking();
+            booking.setId((Long) row[0]);
+            booking.setStatus((BookingStatus) row[1]);
+            booking.setStart((LocalDateTime) row[2]);
+            booking.setEnd((LocalDateTime) row[3]);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    /**
+     * Returns the key of the first booking of the listing in {@code order}, or {@code null} if it has none.
+     */
+    private Key boundary(String entity, Listing listing, String order) {
+        TypedQuery<Object[]> query = entityManager.createQuery(KEY.formatted(entity) + listing.scalarParty()
+                + statePredicate(listing.state()) + order, Object[].class);
+        List<Object[]> rows = bind(query, listing, null, 0, 1).getResultList();
+        return rows.isEmpty() ? null : new Key((LocalDateTime) rows.get(0)[0], (Long) rows.get(0)[1]);
+    }
+
+    private long count(String entity, Listing listing, String keyset, Key key) {
+        TypedQuery<Long> query = entityManager.createQuery(KEY_COUNT.formatted(entity) + listing.scalarParty()
+                + statePredicate(listing.state()) + keyset, Long.class);
+        return bind(query, listing, key, 0, null).getSingleResult();
+    }
+
+    private static boolean readsArchive(BookingState state) {
+        return state == BookingState.ALL || state == BookingState.PAST || state == BookingState.REJECTED;
+    }
+
+    private static Integer remaining(List<Booking> bookings, Integer size) {
+        return size == null ? null : size - bookings.size();
+    }
+
+    private static List<Booking> page(List<Booking> bookings, int from, Integer size) {
+        bookings.sort(NEWEST_FIRST);
+        int to = size == null ? bookings.size() : Math.min(bookings.size(), from + size);
+        return from >= to ? new ArrayList<>() : new ArrayList<>(bookings.subList(from, to));
+    }
+
+    private <T> TypedQuery<T> bind(TypedQuery<T> query, Listing listing, Key key, int from, Integer size) {
+        query.setParameter("userId", listing.userId());
+        if (key != null) {
+            query.setParameter("keyStart", key.start());
+            query.setParameter("keyId", key.id());
+        }
+        switch (listing.state()) {
+            case CURRENT, PAST, FUTURE -> query.setParameter("now", listing.now());
+            case WAITING -> query.setParameter("status", BookingStatus.WAITING);
+            case REJECTED -> query.setParameter("status", BookingStatus.REJECTED);
+            default -> {
+            }
+        }
+
+        query.setFirstResult(from);
+        if (size != null) {
+            query.setMaxResults(size);
+        }
+        return query;
+    }
+
+    private String statePredicate(BookingState state) {
+        return switch (state) {
+            case CURRENT -> " and b.start <= :now and b.end > :now";
+            case PAST -> " and b.start < :now and b.end < :now";
+            case FUTURE -> " and b.start > :now";
+            case WAITING, REJECTED -> " and b.status = :status";
+            default -> "";
+        };
+    }
+
+    private Map<BookingState, Long> countByStates(String party, Long userId, LocalDateTime now) {
+        Object[] live = countRow(LIVE, party, userId, now);
+        Object[] archived = countRow(ARCHIVED, party, userId, now);
+
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        counts.put(BookingState.ALL, toLong(live[0]) + toLong(archived[0]));
+        counts.put(BookingState.CURRENT, toLong(live[1]) + toLong(archived[1]));
+        counts.put(BookingState.PAST, toLong(live[2]) + toLong(archived[2]));
+        counts.put(BookingState.FUTURE, toLong(live[3]) + toLong(archived[3]));
+        counts.put(BookingState.WAITING, toLong(live[4]) + toLong(archived[4]));
+        counts.put(BookingState.REJECTED, toLong(live[5]) + toLong(archived[5]));
+        return counts;
+    }
+
+    private Object[] countRow(String entity, String party, Long userId, LocalDateTime now) {
+        return entityManager.createQuery(COUNT.formatted(entity) + party, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("now", now)
+                .setParameter("waiting", BookingStatus.WAITING)
+                .setParameter("rejected", BookingStatus.REJECTED)
+                .getSingleResult();
+    }
+
+    private long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private record Key(LocalDateTime start, Long id) {
+    }
+
+    private record Listing(boolean owner, Long userId, BookingState state, LocalDateTime now,
+                           boolean fetchAssociations) {
+
+        String party() {
+            return owner ? OWNER : BOOKER;
+        }
+
+        String scalarParty() {
+            return owner ? SCALAR_OWNER : SCALAR_BOOKER;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -8,24 +9,76 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.enums.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookingStorage extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByUserId(Long userId);
-
-    @Query("select b from Booking as b where b.item.id in :itemIds")
+public interface BookingStorage extends JpaRepository<Booking, Long>, BookingStateStorage {
+    @Query("select b from Booking as b join fetch b.user where b.item.id in :itemIds")
     List<Booking> findAllByItemIdOrderByStartDesc(@Param("itemIds") List<Long> itemIds);
 
     List<Booking> findAllByItemId(Long itemId);
 
-    List<Booking> findAllByUserIdAndEndAfterOrderByStartDesc(Long userId, LocalDateTime now);
+    @Query("select b.id as id, b.start as start, b.end as end from Booking as b " +
+            "where b.item.id = :itemId and b.status in :statuses")
+    List<BookingPeriod> findAllPeriodsByItemIdAndStatusIn(@Param("itemId") Long itemId,
+                                                          @Param("statuses") Collection<BookingStatus> statuses);
+
+    @Query("select count(b) as count, coalesce(sum(b.version + b.user.version), 0) as versions, " +
+            "coalesce(max(b.id), 0) as maxId, " +
+            "min(case when b.start > :now then b.start end) as nextStart, " +
+            "min(case when b.end > :now then b.end end) as nextEnd " +
+            "from Booking as b where b.item.id = :itemId")
+    BookingRollup rollupByItemId(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    @Query("select count(b) as count, coalesce(sum(b.version + b.user.version), 0) as versions, " +
+            "coalesce(max(b.id), 0) as maxId, " +
+            "min(case when b.start > :now then b.start end) as nextStart, " +
+            "min(case when b.end > :now then b.end end) as nextEnd " +
+            "from Booking as b where b.item.owner.id = :ownerId")
+    BookingRollup rollupByItemOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    boolean existsByUserIdAndItemIdAndStatusAndEndBefore(Long userId, Long itemId, BookingStatus status,
+                                                         LocalDateTime end);
+
+    @Query("select b.item.id as itemId, min(b.end) as end from Booking as b " +
+            "where b.user.id = :userId and b.status = :status group by b.item.id")
+    List<RentalEnd> findRentalEndsByUserIdAndStatus(@Param("userId") Long userId,
+                                                    @Param("status") BookingStatus status);
+
+    @Query(value = "select id as \"id\", item_id as \"itemId\" from bookings " +
+            "where status = 'WAITING' and start_time < :now " +
+            "order by start_time limit :limit for update skip locked", nativeQuery = true)
+    List<BookingRef> lockWaitingStartedBefore(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "select id as \"id\", item_id as \"itemId\" from bookings " +
+            "where start_time < :cutoff and end_time < :cutoff and status <> 'WAITING' " +
+            "order by end_time limit :limit for update skip locked", nativeQuery = true)
+    List<BookingRef> lockEndedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query("select min(b.start) from Booking as b where b.status = :status and b.start < :now")
+    LocalDateTime findEarliestStartByStatusBefore(@Param("status") BookingStatus status,
+                                                  @Param("now") LocalDateTime now);
 
-    List<Booking> findAllByUserIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :id and b.start = :start and b.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("start") LocalDateTime start,
+                            @Param("expected") BookingStatus expected,
+                            @Param("status") BookingStatus status);
 
-    List<Booking> findAllByUserIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now);
+    @Modifying
+    @Query("update Booking as b set b.status = :status, b.version = b.version + 1 where b.id in :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
 
-    List<Booking> findAllByUserIdAndStatusOrderByStartDesc(Long userId, BookingStatus status);
+    @Modifying
+    @Query(value = "insert into bookings_archive (id, status, item_id, user_id, start_time, end_time, archived_at) " +
+            "select id, status, item_id, user_id, start_time, end_time, :now from bookings where id in :ids",
+            nativeQuery = true)
+    int copyToArchiveByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 
-    List<Booking> findAllByUserIdAndItemIdAndEndBeforeOrderByStartDesc(Long userId, Long itemId, LocalDateTime now);
-}
\ No newline at end of file
+    @Modifying
+    @Query("delete from Booking as b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
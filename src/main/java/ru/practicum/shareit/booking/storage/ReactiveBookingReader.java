@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking.storage;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.reactive.ReactiveReadDatabase;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Streams booking listings over R2DBC with the same predicates and ordering as {@link BookingStateStorageImpl}.
+ * Rows are mapped straight into {@link BookingDtoResponse} and emitted as the driver fetches them. Archived
+ * bookings are read through a {@code UNION ALL}, whose predicates Postgres pushes down into both tables.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.reactive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveBookingReader {
+
+    private static final String SELECT = "SELECT b.id, b.status, b.start_time, b.end_time, " +
+            "i.id AS item_id, i.name AS item_name, i.description AS item_description, " +
+            "i.available AS item_available, " +
+            "o.id AS owner_id, o.name AS owner_name, o.email AS owner_email, " +
+            "r.id AS request_id, r.description AS request_description, r.created AS request_created, " +
+            "ro.id AS requestor_id, ro.name AS requestor_name, ro.email AS requestor_email, " +
+            "u.id AS booker_id, u.name AS booker_name, u.email AS booker_email " +
+            "FROM (SELECT id, status, item_id, user_id, start_time, end_time FROM bookings " +
+            "UNION ALL SELECT id, status, item_id, user_id, start_time, end_time FROM bookings_archive) AS b " +
+            "JOIN items AS i ON i.id = b.item_id " +
+            "JOIN users AS o ON o.id = i.owner_id " +
+            "LEFT JOIN requests AS r ON r.id = i.request_id " +
+            "LEFT JOIN users AS ro ON ro.id = r.owner_id " +
+            "JOIN users AS u ON u.id = b.user_id ";
+    private static final String BOOKER = "WHERE b.user_id = :userId";
+    private static final String OWNER = "WHERE i.owner_id = :userId";
+    private static final String ORDER = " ORDER BY b.start_time DESC, b.id DESC OFFSET :from ROWS";
+    private static final String LIMIT = " FETCH FIRST :size ROWS ONLY";
+
+    private final ReactiveReadDatabase database;
+
+    public Mono<Boolean> existsUserById(Long userId) {
+        return database.getClient().sql("SELECT 1 FROM users WHERE id = :userId AND deleted_at IS NULL")
+                .bind("userId", userId)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    public Flux<BookingDtoResponse> findAllByBookerAndState(Long bookerId, BookingState state, LocalDateTime now,
+                                                           int from, Integer size) {
+        return findAllByState(BOOKER, bookerId, state, now, from, size);
+    }
+
+    public Flux<BookingDtoResponse> findAllByOwnerAndState(Long ownerId, BookingState state, LocalDateTime now,
+                                                          int from, Integer size) {
+        return findAllByState(OWNER, ownerId, state, now, from, size);
+    }
+
+    private Flux<BookingDtoResponse> findAllByState(String party, Long userId, BookingState state,
+                                                    LocalDateTime now, int from, Integer size) {
+        String sql = SELECT + party + statePredicate(state) + ORDER + (size != null ? LIMIT : "");
+        int fetchSize = database.getFetchSize();
+
+        DatabaseClient.GenericExecuteSpec spec = database.getClient().sql(sql)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind("userId", userId)
+                .bind("from", from);
+        if (size != null) {
+            spec = spec.bind("size", size);
+        }
+        switch (state) {
+            case CURRENT, PAST, FUTURE -> spec = spec.bind("now", now);
+            case WAITING -> spec = spec.bind("status", BookingStatus.WAITING.name());
+            case REJECTED -> spec = spec.bind("status", BookingStatus.REJECTED.name());
+            default -> {
+            }
+        }
+        return spec.map(this::mapRow).all();
+    }
+
+    private String statePredicate(BookingState state) {
+        return switch (state) {
+            case CURRENT -> " AND b.start_time <= :now AND b.end_time > :now";
+            case PAST -> " AND b.start_time < :now AND b.end_time < :now";
+            case FUTURE -> " AND b.start_time > :now";
+            case WAITING, REJECTED -> " AND b.status = :status";
+            default -> "";
+        };
+    }
+
+    private BookingDtoResponse mapRow(Readable row) {
+        Item item = new Item();
+        item.setId(toLong(row.get("item_id")));
+        item.setName(row.get("item_name", String.class));
+        item.setDescription(row.get("item_description", String.class));
+        item.setAvailable(row.get("item_available", Boolean.class));
+        item.setOwner(mapUser(row, "owner_id", "owner_name", "owner_email"));
+
+        Long requestId = toLong(row.get("request_id"));
+        if (requestId != null) {
+            ItemRequest request = new ItemRequest();
+            request.setId(requestId);
+            request.setDescription(row.get("request_description", String.class));
+            request.setCreated(row.get("request_created", LocalDateTime.class));
+            request.setOwner(mapUser(row, "requestor_id", "requestor_name", "requestor_email"));
+            item.setRequest(request);
+        }
+
+        BookingDtoResponse dto = new BookingDtoResponse();
+        dto.setId(toLong(row.get("id")));
+        dto.setStatus(BookingStatus.valueOf(row.get("status", String.class)));
+        dto.setStart(row.get("start_time", LocalDateTime.class));
+        dto.setEnd(row.get("end_time", LocalDateTime.class));
+        dto.setItem(item);
+        dto.setBooker(mapUser(row, "booker_id", "booker_name", "booker_email"));
+        return dto;
+    }
+
+    private User mapUser(Readable row, String id, String name, String email) {
+        User user = new User();
+        user.setId(toLong(row.get(id)));
+        user.setName(row.get(name, String.class));
+        user.setEmail(row.get(email, String.class));
+        return user;
+    }
+
+    private Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.booking.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.cache.CacheInvalidationListener;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers whether a user has finished an approved rental of an item.
+ * <p>
+ * For every user it keeps the items they have approved bookings of, each with the earliest end of such a booking
+ * in epoch seconds, so a check is two map lookups. A user's rentals are hydrated from {@link BookingStorage} on
+ * first access and kept current by {@link #onBookingSaved(Booking)} when a booking is approved. With the index
+ * disabled every check is an existence query on {@code (user_id, item_id, end_time)}. Both paths also read
+ * {@code bookings_archive}, so archiving a booking does not take away the right to comment.
+ * <p>
+ * At most {@code max-users} users are kept, and a user not checked for {@code expire-after-access} is dropped;
+ * either way they are hydrated again on the next check.
+ */
+@Component
+public class RentalEligibilityIndex implements CacheInvalidationListener {
+
+    private final BookingStorage bookingStorage;
+    private final ArchivedBookingStorage archivedBookingStorage;
+    private final RentalIndexProperties properties;
+    private final ShardRouter shardRouter;
+    private final Cache<Long, Map<Long, Long>> rentals;
+
+    public RentalEligibilityIndex(BookingStorage bookingStorage,
+                                  ArchivedBookingStorage archivedBookingStorage,
+                                  RentalIndexProperties properties,
+                                  ShardRouter shardRouter) {
+        this.bookingStorage = bookingStorage;
+        this.archivedBookingStorage = archivedBookingStorage;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.rentals = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .build();
+    }
+
+    public boolean hasRented(Long userId, Long itemId, LocalDateTime now) {
+        if (!properties.isEnabled()) {
+            return bookingStorage.existsByUserIdAndItemIdAndStatusAndEndBefore(userId, itemId,
+                    BookingStatus.APPROVED, now)
+                    || archivedBookingStorage.existsByUserIdAndItemIdAndStatusAndEndBefore(userId, itemId,
+                    BookingStatus.APPROVED, now);
+        }
+        Long end = rentals.get(userId, this::hydrate).get(itemId);
+        return end != null && end < toEpochSecond(now);
+    }
+
+    public void onBookingSaved(Booking booking) {
+        if (!properties.isEnabled() || booking.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        Long userId = booking.getUser().getId();
+        Long itemId = booking.getItem().getId();
+        long end = toEpochSecond(booking.getEnd());
+
+        afterCommit(() -> rentals.asMap().computeIfPresent(userId, (id, items) -> {
+            items.merge(itemId, end, Math::min);
+            return items;
+        }));
+    }
+
+    @Override
+    public void invalidate(CacheRegion region, Set<Long> ids) {
+        if (region == CacheRegion.USER || region == CacheRegion.USER_RENTALS) {
+            rentals.invalidateAll(ids);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        rentals.invalidateAll();
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private Map<Long, Long> hydrate(Long userId) {
+        Map<Long, Long> items = new ConcurrentHashMap<>();
+        List<RentalEnd> rentals = shardRouter.gather(() -> {
+            List<RentalEnd> ends = new ArrayList<>(
+                    bookingStorage.findRentalEndsByUserIdAndStatus(userId, BookingStatus.APPROVED));
+            ends.addAll(archivedBookingStorage.findRentalEndsByUserIdAndStatus(userId, BookingStatus.APPROVED));
+            return ends;
+        });
+        for (RentalEnd rental : rentals) {
+            items.merge(rental.getItemId(), toEpochSecond(rental.getEnd()), Math::min);
+        }
+        return items;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
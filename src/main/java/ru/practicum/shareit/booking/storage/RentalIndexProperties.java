@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.rental-index")
+public class RentalIndexProperties {
+
+    private boolean enabled = true;
+
+    private int maxUsers = 10_000;
+
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.cache-bus")
+public class CacheBusProperties {
+
+    private boolean enabled = true;
+
+    private String channel = "shareit_cache_invalidation";
+
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    private int maxPendingKeys = 10_000;
+
+    private int maxPayloadBytes = 7_900;
+
+    private Duration pollTimeout = Duration.ofMillis(500);
+
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+}
@@ -0,0 +1,215 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tells the other nodes which cached data this node has changed, over Postgres {@code NOTIFY}.
+ * <p>
+ * Keys published by committed transactions are collected and coalesced for {@code flush-interval}, then sent as
+ * few notifications as fit the payload limit. When more than {@code max-pending-keys} pile up, a single full
+ * flush is sent instead. Notifications received by {@link PostgresInvalidationListener} are applied to every
+ * {@link CacheInvalidationListener} except on the node that sent them, whose caches are already current. The
+ * {@code shareit.cache.invalidation.lag} timer measures from publishing a key to applying it on another node,
+ * so it includes clock skew between the nodes.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+    private static final ResultSetExtractor<Void> IGNORE_RESULT = rs -> null;
+
+    private final CacheBusProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final List<CacheInvalidationListener> listeners;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<CacheRegion, Set<Long>> pending = new EnumMap<>(CacheRegion.class);
+    private int pendingCount;
+    private boolean flushAllPending;
+    private long oldestPending;
+    private final Timer lag;
+    private final Counter sentMessages;
+    private final Counter receivedMessages;
+    private final Counter sentKeys;
+    private final Counter receivedKeys;
+    private final Counter fullFlushes;
+
+    public CacheInvalidationBus(CacheBusProperties properties, JdbcTemplate jdbcTemplate,
+                                List<CacheInvalidationListener> listeners, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.listeners = listeners;
+        this.lag = Timer.builder("shareit.cache.invalidation.lag")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.sentMessages = meterRegistry.counter("shareit.cache.invalidation.messages", "direction", "sent");
+        this.receivedMessages = meterRegistry.counter("shareit.cache.invalidation.messages", "direction", "received");
+        this.sentKeys = meterRegistry.counter("shareit.cache.invalidation.keys", "direction", "sent");
+        this.receivedKeys = meterRegistry.counter("shareit.cache.invalidation.keys", "direction", "received");
+        this.fullFlushes = meterRegistry.counter("shareit.cache.invalidation.full.flushes");
+        meterRegistry.gauge("shareit.cache.invalidation.pending", this, CacheInvalidationBus::getPendingCount);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(CacheRegion region, Long id) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        afterCommit(() -> enqueue(region, Set.of(id), System.currentTimeMillis()));
+    }
+
+    /**
+     * Invalidates the keys on this node as well as on the others, for changes made behind the back of the local
+     * caches, such as bulk deletes.
+     */
+    public void invalidateEverywhere(CacheRegion region, Set<Long> ids) {
+        for (CacheInvalidationListener listener : listeners) {
+            listener.invalidate(region, ids);
+        }
+        if (properties.isEnabled()) {
+            enqueue(region, ids, System.currentTimeMillis());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.cache-bus.flush-interval:PT0.05S}")
+    public void flush() {
+        Map<CacheRegion, Set<Long>> keys;
+        boolean flushAll;
+        long publishedAt;
+        int count;
+        synchronized (pending) {
+            if (pendingCount == 0 && !flushAllPending) {
+                return;
+            }
+            keys = new EnumMap<>(pending);
+            flushAll = flushAllPending;
+            publishedAt = oldestPending;
+            count = pendingCount;
+            pending.clear();
+            pendingCount = 0;
+            flushAllPending = false;
+        }
+
+        List<String> payloads = flushAll
+                ? List.of(InvalidationMessage.flushAll(nodeId, publishedAt))
+                : InvalidationMessage.encode(nodeId, publishedAt, keys, properties.getMaxPayloadBytes());
+        try {
+            for (String payload : payloads) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", IGNORE_RESULT, properties.getChannel(), payload);
+                sentMessages.increment();
+            }
+            sentKeys.increment(count);
+        } catch (DataAccessException e) {
+            log.warn("Could not send cache invalidations, will retry: {}", e.getMessage());
+            if (flushAll) {
+                requeueFlushAll(publishedAt);
+            } else {
+                keys.forEach((region, ids) -> enqueue(region, ids, publishedAt));
+            }
+        }
+    }
+
+    void receive(String payload) {
+        InvalidationMessage message;
+        try {
+            message = InvalidationMessage.decode(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring cache invalidation: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.nodeId())) {
+            return;
+        }
+        receivedMessages.increment();
+        if (message.flushAll()) {
+            flushLocal();
+        } else {
+            message.keys().forEach((region, ids) -> {
+                receivedKeys.increment(ids.size());
+                for (CacheInvalidationListener listener : listeners) {
+                    listener.invalidate(region, ids);
+                }
+            });
+        }
+        lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - message.publishedAt())));
+    }
+
+    void flushLocal() {
+        fullFlushes.increment();
+        for (CacheInvalidationListener listener : listeners) {
+            listener.invalidateAll();
+        }
+    }
+
+    private void enqueue(CacheRegion region, Set<Long> ids, long publishedAt) {
+        synchronized (pending) {
+            if (pendingCount == 0 && !flushAllPending || publishedAt < oldestPending) {
+                oldestPending = publishedAt;
+            }
+            if (flushAllPending) {
+                return;
+            }
+            Set<Long> regionIds = pending.computeIfAbsent(region, r -> new HashSet<>());
+            for (Long id : ids) {
+                if (regionIds.add(id)) {
+                    pendingCount++;
+                }
+            }
+            if (pendingCount > properties.getMaxPendingKeys()) {
+                pending.clear();
+                pendingCount = 0;
+                flushAllPending = true;
+            }
+        }
+    }
+
+    private void requeueFlushAll(long publishedAt) {
+        synchronized (pending) {
+            if (pendingCount > 0 || flushAllPending) {
+                publishedAt = Math.min(oldestPending, publishedAt);
+            }
+            pending.clear();
+            pendingCount = 0;
+            flushAllPending = true;
+            oldestPending = publishedAt;
+        }
+    }
+
+    private double getPendingCount() {
+        synchronized (pending) {
+            return pendingCount;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
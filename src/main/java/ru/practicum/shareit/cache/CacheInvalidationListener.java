@@ -0,0 +1,19 @@
+package ru.practicum.shareit.cache;
+
+import java.util.Set;
+
+/**
+ * A local cache that drops its entries when another node changes the data behind them.
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * Drops what the cache holds for the given keys; regions the cache does not depend on are ignored.
+     */
+    void invalidate(CacheRegion region, Set<Long> ids);
+
+    /**
+     * Drops everything, used when invalidations may have been missed.
+     */
+    void invalidateAll();
+}
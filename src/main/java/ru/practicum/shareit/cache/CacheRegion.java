@@ -0,0 +1,11 @@
+package ru.practicum.shareit.cache;
+
+/**
+ * Kinds of keys that local caches are invalidated by.
+ */
+public enum CacheRegion {
+    USER,
+    ITEM,
+    ITEM_CALENDAR,
+    USER_RENTALS
+}
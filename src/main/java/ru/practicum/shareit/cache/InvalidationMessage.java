@@ -0,0 +1,69 @@
+package ru.practicum.shareit.cache;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A batch of invalidated keys as sent over the notification channel.
+ * <p>
+ * The payload is plain text: the sending node, the time its oldest key was published in epoch milliseconds, and
+ * then either {@code *} for a full flush or one {@code REGION=id,id} group per region, separated by spaces.
+ */
+record InvalidationMessage(String nodeId, long publishedAt, boolean flushAll, Map<CacheRegion, Set<Long>> keys) {
+    private static final String FLUSH_ALL = "*";
+
+    static String flushAll(String nodeId, long publishedAt) {
+        return nodeId + " " + publishedAt + " " + FLUSH_ALL;
+    }
+
+    /**
+     * Splits the keys into as few payloads as fit {@code maxLength} characters each.
+     */
+    static List<String> encode(String nodeId, long publishedAt, Map<CacheRegion, Set<Long>> keys, int maxLength) {
+        String header = nodeId + " " + publishedAt;
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(header);
+        for (Map.Entry<CacheRegion, Set<Long>> entry : keys.entrySet()) {
+            boolean opened = false;
+            for (Long id : entry.getValue()) {
+                String token = (opened ? "," : " " + entry.getKey().name() + "=") + id;
+                if (payload.length() + token.length() > maxLength && payload.length() > header.length()) {
+                    payloads.add(payload.toString());
+                    payload = new StringBuilder(header);
+                    token = " " + entry.getKey().name() + "=" + id;
+                }
+                payload.append(token);
+                opened = true;
+            }
+        }
+        if (payload.length() > header.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    static InvalidationMessage decode(String payload) {
+        String[] parts = payload.split(" ");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Malformed invalidation message: " + payload);
+        }
+        long publishedAt = Long.parseLong(parts[1]);
+        if (parts.length == 3 && FLUSH_ALL.equals(parts[2])) {
+            return new InvalidationMessage(parts[0], publishedAt, true, Map.of());
+        }
+        Map<CacheRegion, Set<Long>> keys = new EnumMap<>(CacheRegion.class);
+        for (int i = 2; i < parts.length; i++) {
+            int separator = parts[i].indexOf('=');
+            CacheRegion region = CacheRegion.valueOf(parts[i].substring(0, separator));
+            Set<Long> ids = keys.computeIfAbsent(region, r -> new HashSet<>());
+            for (String id : parts[i].substring(separator + 1).split(",")) {
+                ids.add(Long.parseLong(id));
+            }
+        }
+        return new InvalidationMessage(parts[0], publishedAt, false, keys);
+    }
+}
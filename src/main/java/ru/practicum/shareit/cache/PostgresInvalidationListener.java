@@ -0,0 +1,139 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.shard.ShardingProperties;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Receives cache invalidations from the other nodes on a dedicated Postgres connection that {@code LISTEN}s on
+ * the bus channel.
+ * <p>
+ * Notifications sent while the connection is down are lost, so after every connect, including the first one,
+ * all local caches are flushed before listening resumes. Reconnect attempts back off exponentially up to
+ * {@code max-reconnect-delay}. With sharding enabled the bus lives on the first shard.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.cache-bus", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PostgresInvalidationListener {
+
+    private final CacheInvalidationBus bus;
+    private final CacheBusProperties properties;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final AtomicBoolean connected = new AtomicBoolean();
+    private final Counter reconnects;
+    private volatile boolean running;
+    private Thread thread;
+
+    public PostgresInvalidationListener(CacheInvalidationBus bus, CacheBusProperties properties,
+                                        DataSourceProperties dataSourceProperties,
+                                        ShardingProperties shardingProperties, MeterRegistry meterRegistry) {
+        this.bus = bus;
+        this.properties = properties;
+        if (shardingProperties.isEnabled() && !shardingProperties.getShards().isEmpty()) {
+            ShardingProperties.Shard home = shardingProperties.getShards().get(0);
+            this.url = home.getUrl();
+            this.username = home.getUsername();
+            this.password = home.getPassword();
+        } else {
+            this.url = dataSourceProperties.determineUrl();
+            this.username = dataSourceProperties.determineUsername();
+            this.password = dataSourceProperties.determinePassword();
+        }
+        this.reconnects = meterRegistry.counter("shareit.cache.invalidation.reconnects");
+        meterRegistry.gauge("shareit.cache.invalidation.connected", connected, value -> value.get() ? 1 : 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listen() {
+        Duration delay = properties.getReconnectDelay();
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                if (!connection.isWrapperFor(PGConnection.class)) {
+                    log.warn("Cache invalidation bus needs Postgres, {} is not supported; bus disabled", url);
+                    return;
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                connected.set(true);
+                bus.flushLocal();
+                delay = properties.getReconnectDelay();
+                receive(connection.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, reconnecting in {}: {}", delay, e.getMessage());
+            } finally {
+                connected.set(false);
+            }
+            if (!sleep(delay)) {
+                return;
+            }
+            reconnects.increment();
+            delay = delay.multipliedBy(2).compareTo(properties.getMaxReconnectDelay()) > 0
+                    ? properties.getMaxReconnectDelay()
+                    : delay.multipliedBy(2);
+        }
+    }
+
+    private void receive(PGConnection connection) throws SQLException {
+        int timeout = (int) properties.getPollTimeout().toMillis();
+        while (running) {
+            PGNotification[] notifications = connection.getNotifications(timeout);
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                bus.receive(notification.getParameter());
+            }
+        }
+    }
+
+    private boolean sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -8,6 +8,10 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @UtilityClass
 public class CommentMapper {
@@ -29,4 +33,27 @@ public class CommentMapper {
         dto.setCreated(comment.getCreated());
         return dto;
     }
+
+    public List<CommentDtoResponse> mapCommentToDto(List<Comment> comments) {
+        List<CommentDtoResponse> dtos = new ArrayList<>(comments.size());
+        for (int i = 0, size = comments.size(); i < size; i++) {
+            dtos.add(mapCommentToDto(comments.get(i)));
+        }
+        return dtos;
+    }
+
+    public Map<Long, List<CommentDtoResponse>> groupByItemId(List<Comment> comments, int expectedItems) {
+        Map<Long, List<CommentDtoResponse>> groups = HashMap.newHashMap(expectedItems);
+        for (int i = 0, size = comments.size(); i < size; i++) {
+            Comment comment = comments.get(i);
+            Long itemId = comment.getItem().getId();
+            List<CommentDtoResponse> group = groups.get(itemId);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(itemId, group);
+            }
+            group.add(mapCommentToDto(comment));
+        }
+        return groups;
+    }
 }
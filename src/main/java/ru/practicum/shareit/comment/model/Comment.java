@@ -31,4 +31,7 @@ public class Comment {
 
     @Column
     LocalDateTime created;
+
+    @Version
+    Long version;
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.common.VersionRollup;
 
 import java.util.List;
 
@@ -12,6 +13,14 @@ import java.util.List;
 public interface CommentStorage extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItemId(Long itemId);
 
-    @Query("select c from Comment as c where c.item.id in :itemIds")
+    @Query("select c from Comment as c join fetch c.owner where c.item.id in :itemIds")
     List<Comment> findAllByItemId(@Param("itemIds") List<Long> itemIds);
+
+    @Query("select count(c) as count, coalesce(sum(c.version + c.owner.version), 0) as versions, " +
+            "coalesce(max(c.id), 0) as maxId from Comment as c where c.item.id = :itemId")
+    VersionRollup rollupByItemId(@Param("itemId") Long itemId);
+
+    @Query("select count(c) as count, coalesce(sum(c.version + c.owner.version), 0) as versions, " +
+            "coalesce(max(c.id), 0) as maxId from Comment as c where c.item.owner.id = :ownerId")
+    VersionRollup rollupByItemOwnerId(@Param("ownerId") Long ownerId);
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.common;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.TreeSet;
+
+@UtilityClass
+public class EntityTags {
+
+    public String of(Object... parts) {
+        StringBuilder source = new StringBuilder();
+        for (Object part : parts) {
+            source.append(part).append('|');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    public String describe(VersionRollup rollup) {
+        return rollup.getCount() + ":" + rollup.getVersions() + ":" + rollup.getMaxId();
+    }
+
+    /**
+     * Describes a projection independently of the order the fields were requested in, so the same projection
+     * always gets the same tag and different projections never share one.
+     */
+    public String describe(FieldSelection fields) {
+        return fields.isAll() ? "*" : String.join(",", new TreeSet<>(fields.getFields()));
+    }
+
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
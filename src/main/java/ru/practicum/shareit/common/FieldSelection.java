@@ -0,0 +1,76 @@
+package ru.practicum.shareit.common;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Fields requested with {@code ?fields=a,b,c}. Services use it to skip loading associations nobody asked for,
+ * and {@link FieldSelectionAdvice} trims the serialized response to the same fields.
+ */
+@ToString
+@EqualsAndHashCode
+public final class FieldSelection {
+    public static final String PARAM = "fields";
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    public static FieldSelection parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> selected = names(fields);
+        for (String name : selected) {
+            if (!allowed.contains(name)) {
+                throw new ValidationException("Unknown field " + name + ", expected any of " + allowed);
+            }
+        }
+        return selected.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSet(selected));
+    }
+
+    public static Set<String> names(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean includesAny(String... candidates) {
+        for (String candidate : candidates) {
+            if (includes(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+}
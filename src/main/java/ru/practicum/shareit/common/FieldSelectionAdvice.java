@@ -0,0 +1,58 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Trims responses to the fields named in {@code ?fields=}. Only the top-level DTO is filtered, through the
+ * {@link JsonFilter} declared on its class; nested objects and error bodies are written in full.
+ */
+@ControllerAdvice
+public class FieldSelectionAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FieldSelection.PARAM);
+        if (fields == null || fields.isBlank()) {
+            return;
+        }
+
+        Object element = firstElement(bodyContainer.getValue());
+        JsonFilter filter = element == null
+                ? null
+                : AnnotationUtils.findAnnotation(element.getClass(), JsonFilter.class);
+        if (filter == null) {
+            return;
+        }
+
+        Set<String> selected = FieldSelection.names(fields);
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                .addFilter(filter.value(), SimpleBeanPropertyFilter.filterOutAllExcept(selected)));
+    }
+
+    private Object firstElement(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.isEmpty() ? null : collection.iterator().next();
+        }
+        return value;
+    }
+}
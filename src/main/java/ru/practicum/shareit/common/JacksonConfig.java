@@ -0,0 +1,56 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * JSON, CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) are all written by
+ * mappers built from Boot's {@link Jackson2ObjectMapperBuilder}, so modules, date handling and field filters
+ * are identical across formats. The factories share one bounded pool of read/write buffers instead of
+ * allocating them per request or pinning them to request threads.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * DTOs carrying a {@code @JsonFilter} are written in full unless {@link FieldSelectionAdvice} narrows them.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldFilterCustomizer() {
+        return builder -> builder
+                .factory(jsonFactory())
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(cborFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory()).build());
+    }
+
+    public static JsonFactory jsonFactory() {
+        return JsonFactory.builder().recyclerPool(JsonRecyclerPools.sharedBoundedPool()).build();
+    }
+
+    public static CBORFactory cborFactory() {
+        return CBORFactory.builder().recyclerPool(JsonRecyclerPools.sharedBoundedPool()).build();
+    }
+
+    public static SmileFactory smileFactory() {
+        return SmileFactory.builder().recyclerPool(JsonRecyclerPools.sharedBoundedPool()).build();
+    }
+}
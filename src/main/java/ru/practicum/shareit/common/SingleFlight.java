@@ -0,0 +1,70 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with equal keys into one execution.
+ * <p>
+ * The first caller for a key runs the loader on its own thread; callers arriving while it is in flight wait
+ * for the same result or exception. Nothing is kept once the call completes, but a joined result can still be
+ * stale: a caller whose own write committed after the in-flight load started gets what that load read, which
+ * may not include the write. Only coalesce reads that may lag a concurrent write by one load.
+ * <p>
+ * The ratio of {@code shareit.coalescing.executions} to {@code shareit.coalescing.calls} shows how much work
+ * was saved.
+ */
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter calls;
+    private final Counter executions;
+
+    public SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.calls = meterRegistry.counter("shareit.coalescing.calls", "operation", operation);
+        this.executions = meterRegistry.counter("shareit.coalescing.executions", "operation", operation);
+        meterRegistry.gaugeMapSize("shareit.coalescing.in.flight",
+                Tags.of("operation", operation), inFlight);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        calls.increment();
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        executions.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
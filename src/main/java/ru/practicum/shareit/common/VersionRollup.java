@@ -0,0 +1,9 @@
+package ru.practicum.shareit.common;
+
+public interface VersionRollup {
+    Long getCount();
+
+    Long getVersions();
+
+    Long getMaxId();
+}
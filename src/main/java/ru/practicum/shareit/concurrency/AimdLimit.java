@@ -0,0 +1,118 @@
+package ru.practicum.shareit.concurrency;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit adjusted with additive increase and multiplicative decrease.
+ * <p>
+ * Every completed request reports its service time. A request that was slower than the latency threshold or
+ * failed shrinks the limit by the backoff ratio; a fast request grows it by one, but only while at least half
+ * of the limit is in use, so an idle group does not inflate its limit without evidence that it is needed.
+ * Requests over the limit wait in a bounded queue for a permit and are rejected once it is full or their
+ * wait times out.
+ */
+class AimdLimit {
+
+    private final ConcurrencyLimitProperties.Limit settings;
+    private final double backoffRatio;
+    private final long thresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+
+    AimdLimit(ConcurrencyLimitProperties.Limit settings, double backoffRatio) {
+        this.settings = settings;
+        this.backoffRatio = backoffRatio;
+        this.thresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.limit = settings.getInitialLimit();
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if the limit is reached.
+     *
+     * @return {@code false} if the request should be shed
+     */
+    boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= settings.getMaxQueueSize()) {
+                return false;
+            }
+            long remaining = settings.getQueueTimeout().toNanos();
+            queued++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit without adjusting the limit, for requests whose latency says nothing about the pool.
+     */
+    void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            int previous = (int) limit;
+            if (failed || latencyNanos > thresholdNanos) {
+                limit = Math.max(settings.getMinLimit(), limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(settings.getMaxLimit(), limit + 1);
+            }
+            inFlight--;
+            if ((int) limit > previous) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.concurrency;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+    private static final String GROUP_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".group";
+    private static final String STARTED_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".started";
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        RequestGroup group = RequestGroup.of(request.getMethod());
+        if (!concurrencyLimiter.tryAcquire(group)) {
+            throw new ServiceOverloadedException("Server is overloaded, " + group.name().toLowerCase()
+                    + " requests are being shed", 1);
+        }
+        request.setAttribute(GROUP_ATTRIBUTE, group);
+        request.setAttribute(STARTED_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestGroup group = takeGroup(request);
+        if (group != null) {
+            long latency = System.nanoTime() - (long) request.getAttribute(STARTED_ATTRIBUTE);
+            boolean failed = ex != null || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            concurrencyLimiter.release(group, latency, failed);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // Streaming responses read through the reactive pool and must not hold a permit for the whole stream.
+        RequestGroup group = takeGroup(request);
+        if (group != null) {
+            concurrencyLimiter.release(group);
+        }
+    }
+
+    private static RequestGroup takeGroup(HttpServletRequest request) {
+        RequestGroup group = (RequestGroup) request.getAttribute(GROUP_ATTRIBUTE);
+        request.removeAttribute(GROUP_ATTRIBUTE);
+        return group;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.concurrency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private double backoffRatio = 0.9;
+
+    private Map<RequestGroup, Limit> groups = new EnumMap<>(Map.of(
+            RequestGroup.READ, new Limit(8, 1, 20, Duration.ofMillis(250), 50, Duration.ofMillis(100)),
+            RequestGroup.WRITE, new Limit(4, 1, 10, Duration.ofMillis(500), 20, Duration.ofMillis(200))));
+
+    public Limit getLimit(RequestGroup group) {
+        return groups.getOrDefault(group, groups.get(RequestGroup.READ));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        private Duration latencyThreshold;
+
+        private int maxQueueSize;
+
+        private Duration queueTimeout;
+    }
+}
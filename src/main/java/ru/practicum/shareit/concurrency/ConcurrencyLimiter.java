@@ -0,0 +1,48 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public class ConcurrencyLimiter {
+
+    private final Map<RequestGroup, AimdLimit> limits = new EnumMap<>(RequestGroup.class);
+    private final Map<RequestGroup, Counter> acceptedCounters = new EnumMap<>(RequestGroup.class);
+    private final Map<RequestGroup, Counter> rejectedCounters = new EnumMap<>(RequestGroup.class);
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        for (RequestGroup group : RequestGroup.values()) {
+            AimdLimit limit = new AimdLimit(properties.getLimit(group), properties.getBackoffRatio());
+            String tag = group.name().toLowerCase();
+            limits.put(group, limit);
+            acceptedCounters.put(group, meterRegistry.counter("shareit.concurrency.requests",
+                    "group", tag, "outcome", "accepted"));
+            rejectedCounters.put(group, meterRegistry.counter("shareit.concurrency.requests",
+                    "group", tag, "outcome", "rejected"));
+            meterRegistry.gauge("shareit.concurrency.limit", Tags.of("group", tag), limit, AimdLimit::getLimit);
+            meterRegistry.gauge("shareit.concurrency.inflight", Tags.of("group", tag), limit, AimdLimit::getInFlight);
+        }
+    }
+
+    public boolean tryAcquire(RequestGroup group) throws InterruptedException {
+        if (limits.get(group).acquire()) {
+            acceptedCounters.get(group).increment();
+            return true;
+        }
+        rejectedCounters.get(group).increment();
+        return false;
+    }
+
+    public void release(RequestGroup group) {
+        limits.get(group).release();
+    }
+
+    public void release(RequestGroup group, long latencyNanos, boolean failed) {
+        limits.get(group).release(latencyNanos, failed);
+    }
+}
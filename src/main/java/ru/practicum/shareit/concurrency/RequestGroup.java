@@ -0,0 +1,10 @@
+package ru.practicum.shareit.concurrency;
+
+public enum RequestGroup {
+    READ,
+    WRITE;
+
+    public static RequestGroup of(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) ? READ : WRITE;
+    }
+}
@@ -0,0 +1,307 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.shareit.exception.ErrorResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Makes creating bookings, items and comments safe to retry with an {@code Idempotency-Key} header.
+ * <p>
+ * The first request with a key claims it in the {@link IdempotencyStore} and runs; its response is stored and
+ * replayed to every later request with the same key and the same method, path and body. Duplicates arriving
+ * while the first one is still running wait for its response instead of running again: on this instance they
+ * join its in-flight call, on other instances they poll the store. Keys are scoped by the calling user. Server
+ * errors and rejections by the rate limiter are not stored, so such requests can be retried with the same key.
+ * Bodies larger than {@code max-request-size} are rejected before they are buffered.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Pattern IDEMPOTENT_PATHS = Pattern.compile("/bookings|/items(/\\d+/comment)?");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter mismatched;
+    private final Counter conflicted;
+    private final Counter joined;
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.executed = meterRegistry.counter("shareit.idempotency.requests", "outcome", "executed");
+        this.replayed = meterRegistry.counter("shareit.idempotency.requests", "outcome", "replayed");
+        this.mismatched = meterRegistry.counter("shareit.idempotency.requests", "outcome", "mismatched");
+        this.conflicted = meterRegistry.counter("shareit.idempotency.requests", "outcome", "conflicted");
+        this.joined = meterRegistry.counter("shareit.idempotency.joined");
+        meterRegistry.gaugeMapSize("shareit.idempotency.in.flight", Tags.empty(), inFlight);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !IDEMPOTENT_PATHS.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Validation exception",
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters long");
+            return;
+        }
+        byte[] body = readBody(request);
+        if (body == null) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Validation exception",
+                    "Request body must not exceed " + properties.getMaxRequestSize() + " bytes");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String key = scope(request) + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request, cachedRequest.body);
+
+        CompletableFuture<IdempotencyRecord> call = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            joined.increment();
+            respond(awaitInFlight(existing), fingerprint, response);
+            return;
+        }
+
+        try {
+            Optional<IdempotencyRecord> held = store.claim(key, fingerprint);
+            if (held.isPresent()) {
+                IdempotencyRecord record = held.get().isCompleted() ? held.get() : awaitStored(key);
+                call.complete(record);
+                respond(record, fingerprint, response);
+                return;
+            }
+            executed.increment();
+            call.complete(execute(cachedRequest, response, chain, key, fingerprint));
+        } catch (IOException | ServletException | RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private IdempotencyRecord execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                                      String key, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, captured);
+            StoredResponse result = new StoredResponse(captured.getStatus(), captured.getContentType(),
+                    captured.getHeader(HttpHeaders.LOCATION), captured.getHeader(HttpHeaders.ETAG),
+                    captured.getContentAsByteArray());
+            if (isReplayable(result)) {
+                store.complete(key, result);
+                stored = true;
+            }
+            return new IdempotencyRecord(fingerprint, result);
+        } finally {
+            if (!stored) {
+                store.release(key);
+            }
+            captured.copyBodyToResponse();
+        }
+    }
+
+    private boolean isReplayable(StoredResponse result) {
+        return result.status() < HttpStatus.INTERNAL_SERVER_ERROR.value()
+                && result.status() != HttpStatus.TOO_MANY_REQUESTS.value()
+                && result.body().length <= properties.getMaxResponseSize();
+    }
+
+    private IdempotencyRecord awaitInFlight(CompletableFuture<IdempotencyRecord> call) {
+        try {
+            return call.get(properties.getInFlightTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private IdempotencyRecord awaitStored(String key) {
+        long deadline = System.nanoTime() + properties.getInFlightTimeout().toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Optional<IdempotencyRecord> record = store.find(key);
+            if (record.isEmpty() || record.get().isCompleted()) {
+                return record.orElse(null);
+            }
+        }
+        return null;
+    }
+
+    private void respond(IdempotencyRecord record, String fingerprint, HttpServletResponse response)
+            throws IOException {
+        if (record == null || !record.isCompleted()) {
+            conflicted.increment();
+            writeError(response, HttpStatus.CONFLICT, "Conflict exception",
+                    "A request with this " + IDEMPOTENCY_KEY_HEADER + " has not completed, please retry");
+            return;
+        }
+        if (!record.fingerprint().equals(fingerprint)) {
+            mismatched.increment();
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Validation exception",
+                    IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+            return;
+        }
+        replayed.increment();
+        StoredResponse stored = record.response();
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.etag());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String error, String description)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(error, description));
+    }
+
+    /**
+     * Reads the whole body, or returns {@code null} without reading further once it exceeds the limit.
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        int maxSize = properties.getMaxRequestSize();
+        if (request.getContentLengthLong() > maxSize) {
+            return null;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxSize + 1);
+        return body.length > maxSize ? null : body;
+    }
+
+    private static String scope(HttpServletRequest request) {
+        String userId = request.getHeader(USER_HEADER);
+        return userId == null ? "" : userId.trim();
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return request.getMethod() + " " + request.getRequestURI() + " " + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The body is already in memory, so it is all available at once.
+                    try {
+                        if (input.available() > 0) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
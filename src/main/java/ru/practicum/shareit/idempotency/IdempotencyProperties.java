@@ -0,0 +1,27 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    private String store = "memory";
+
+    private Duration ttl = Duration.ofHours(24);
+
+    private Duration inFlightTimeout = Duration.ofSeconds(30);
+
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    private int maxEntries = 100_000;
+
+    private int maxResponseSize = 64 * 1024;
+
+    private int maxRequestSize = 64 * 1024;
+}
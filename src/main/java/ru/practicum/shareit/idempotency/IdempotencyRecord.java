@@ -0,0 +1,12 @@
+package ru.practicum.shareit.idempotency;
+
+/**
+ * What is held for an idempotency key: the fingerprint of the request that claimed it and, once that request
+ * has finished, its response. A record without a response is still being executed.
+ */
+public record IdempotencyRecord(String fingerprint, StoredResponse response) {
+
+    public boolean isCompleted() {
+        return response != null;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+
+    /**
+     * Reserves the key for a new execution of the request with the given fingerprint. Returns an empty optional
+     * if the key was free, or the record already held for it otherwise. Expired records and claims older than
+     * the in-flight timeout are taken over as if the key were free.
+     */
+    Optional<IdempotencyRecord> claim(String key, String fingerprint);
+
+    Optional<IdempotencyRecord> find(String key);
+
+    void complete(String key, StoredResponse response);
+
+    void release(String key);
+}
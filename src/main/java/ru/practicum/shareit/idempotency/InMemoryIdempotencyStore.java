@@ -0,0 +1,90 @@
+package ru.practicum.shareit.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps idempotency records of this instance in memory for {@code ttl}.
+ * <p>
+ * The store holds at most {@code max-entries} records; when it is full, completed records are dropped in no
+ * particular order before their time, so a very late retry of such a request is executed again.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.idempotency", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyProperties properties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public InMemoryIdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        meterRegistry.gaugeMapSize("shareit.idempotency.store.size", Tags.empty(), entries);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        long now = System.nanoTime();
+        Entry claimed = new Entry(new IdempotencyRecord(fingerprint, null), now);
+        Entry held = entries.compute(key, (k, entry) -> entry == null || isStale(entry, now) ? claimed : entry);
+        if (held == claimed) {
+            evictOverflow();
+            return Optional.empty();
+        }
+        return Optional.of(held.record());
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || isExpired(entry, System.nanoTime())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.record());
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        entries.computeIfPresent(key, (k, entry) ->
+                new Entry(new IdempotencyRecord(entry.record().fingerprint(), response), entry.created()));
+    }
+
+    @Override
+    public void release(String key) {
+        entries.computeIfPresent(key, (k, entry) -> entry.record().isCompleted() ? entry : null);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.eviction-interval:PT1M}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> isStale(entry, now));
+    }
+
+    private boolean isStale(Entry entry, long now) {
+        return isExpired(entry, now) || !entry.record().isCompleted()
+                && now - entry.created() > properties.getInFlightTimeout().toNanos();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.created() > properties.getTtl().toNanos();
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> values = entries.values().iterator();
+        while (entries.size() > properties.getMaxEntries() && values.hasNext()) {
+            if (values.next().record().isCompleted()) {
+                values.remove();
+            }
+        }
+    }
+
+    private record Entry(IdempotencyRecord record, long created) {
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency records in the {@code idempotency_keys} table, so that every instance sees the keys claimed
+ * by the others. A claim is a plain insert that the primary key makes exclusive; the row is filled in with the
+ * response once the request completes.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.idempotency", name = "store", havingValue = "jdbc")
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> {
+        int status = rs.getInt("status");
+        StoredResponse response = rs.wasNull()
+                ? null
+                : new StoredResponse(status, rs.getString("content_type"), rs.getString("location"),
+                rs.getString("etag"), rs.getBytes("body"));
+        return new Row(new IdempotencyRecord(rs.getString("fingerprint"), response),
+                rs.getTimestamp("created").toLocalDateTime());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+
+    @Override
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        if (insert(key, fingerprint)) {
+            return Optional.empty();
+        }
+        Optional<Row> held = findRow(key);
+        if (held.isEmpty()) {
+            return insert(key, fingerprint) ? Optional.empty() : findRow(key).map(Row::record);
+        }
+        Row row = held.get();
+        if (!isStale(row, LocalDateTime.now())) {
+            return Optional.of(row.record());
+        }
+        // Only the instance whose delete hits the stale row may reuse the key.
+        int taken = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND created = ?",
+                key, Timestamp.valueOf(row.created()));
+        if (taken == 1 && insert(key, fingerprint)) {
+            return Optional.empty();
+        }
+        return findRow(key).map(Row::record);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        return findRow(key)
+                .filter(row -> !row.created().isBefore(now.minus(properties.getTtl())))
+                .map(Row::record);
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, content_type = ?, location = ?, etag = ?, " +
+                        "body = ? WHERE idempotency_key = ?",
+                response.status(), response.contentType(), response.location(), response.etag(), response.body(),
+                key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND status IS NULL", key);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.eviction-interval:PT1M}")
+    public void evictExpired() {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(properties.getTtl())));
+    }
+
+    private boolean insert(String key, String fingerprint) {
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, fingerprint, created) " +
+                    "VALUES (?, ?, ?)", key, fingerprint, Timestamp.valueOf(LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private Optional<Row> findRow(String key) {
+        List<Row> rows = jdbcTemplate.query("SELECT fingerprint, status, content_type, location, etag, body, " +
+                "created " +
+                "FROM idempotency_keys WHERE idempotency_key = ?", ROW_MAPPER, key);
+        return rows.stream().findFirst();
+    }
+
+    private boolean isStale(Row row, LocalDateTime now) {
+        return row.created().isBefore(now.minus(properties.getTtl()))
+                || !row.record().isCompleted() && row.created().isBefore(now.minus(properties.getInFlightTimeout()));
+    }
+
+    private record Row(IdempotencyRecord record, LocalDateTime created) {
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.idempotency;
+
+/**
+ * A completed response as replayed to retries: status, the headers that identify the created resource, and body.
+ */
+public record StoredResponse(int status, String contentType, String location, String etag, byte[] body) {
+}
@@ -2,10 +2,15 @@ package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDtoRequest;
 import ru.practicum.shareit.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.common.EntityTags;
+import ru.practicum.shareit.common.FieldSelection;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
@@ -15,10 +20,13 @@ import java.util.List;
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final CacheControl ITEM_CACHE = CacheControl.noCache().cachePrivate();
+
     private final ItemService itemService;
 
     @PostMapping
-    public ResponseEntity<ItemDto> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<ItemDto> create(@RequestHeader(USER_HEADER) Long userId,
                                           @RequestBody ItemDto itemDto) {
         return ResponseEntity.ok(itemService.create(itemDto, userId));
     }
@@ -26,13 +34,13 @@ public class ItemController {
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<CommentDtoResponse> addComment(@Valid @RequestBody CommentDtoRequest dto,
                                                          @PathVariable Long itemId,
-                                                         @RequestHeader("X-Sharer-User-Id") Long userId) {
+                                                         @RequestHeader(USER_HEADER) Long userId) {
         CommentDtoResponse response = itemService.addComment(dto, itemId, userId);
         return ResponseEntity.ok(response);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<ItemDto> update(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<ItemDto> update(@RequestHeader(USER_HEADER) Long userId,
                                           @PathVariable Long itemId,
                                           @RequestBody ItemDto itemDto) {
         return ResponseEntity.ok(itemService.update(itemDto, itemId, userId));
@@ -41,17 +49,56 @@ public class ItemController {
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemDto> findById(
             @PathVariable Long itemId,
-            @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ResponseEntity.ok(itemService.findById(itemId, userId));
+            @RequestHeader(USER_HEADER) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ItemDto.FIELDS);
+        String etag = itemService.getItemTag(itemId, userId, selection);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cached(etag).body(itemService.findById(itemId, userId, selection));
     }
 
     @GetMapping
-    public ResponseEntity<List<ItemDto>> findByUserId(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ResponseEntity.ok(itemService.findByUserId(userId));
+    public ResponseEntity<List<ItemDto>> findByUserId(
+            @RequestHeader(USER_HEADER) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, ItemDto.FIELDS);
+        String etag = itemService.getOwnerItemsTag(userId, selection);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cached(etag).body(itemService.findByUserId(userId, selection));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ItemDto>> findAllByIds(@RequestHeader(USER_HEADER) Long userId,
+                                                      @RequestParam List<Long> ids,
+                                                      @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(itemService.findAllByIds(ids, userId, FieldSelection.parse(fields, ItemDto.FIELDS)));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> search(@RequestParam String text) {
-        return ResponseEntity.ok(itemService.search(text));
+    public ResponseEntity<List<ItemDto>> search(@RequestParam String text,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(itemService.search(text, size, FieldSelection.parse(fields, ItemDto.FIELDS)));
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(ITEM_CACHE)
+                .varyBy(USER_HEADER)
+                .build();
+    }
+
+    private ResponseEntity.BodyBuilder cached(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ITEM_CACHE)
+                .varyBy(USER_HEADER);
     }
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.storage.ReactiveItemReader;
+
+/**
+ * Non-blocking variant of item search, selected with {@code Accept: application/x-ndjson}.
+ */
+@RestController
+@RequestMapping(path = "/items", produces = MediaType.APPLICATION_NDJSON_VALUE)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.reactive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ItemStreamController {
+
+    private final ReactiveItemReader itemReader;
+
+    @GetMapping("/search")
+    public Flux<ItemDto> streamSearch(@RequestParam String text) {
+        if (text.isBlank()) {
+            return Flux.empty();
+        }
+        return itemReader.search(text);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -7,9 +8,14 @@ import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.comment.dto.CommentDtoResponse;
 
 import java.util.List;
+import java.util.Set;
 
 @Data
+@JsonFilter(ItemDto.FIELD_FILTER)
 public class ItemDto {
+    public static final String FIELD_FILTER = "itemFields";
+    public static final Set<String> FIELDS = Set.of("id", "name", "description", "available",
+            "lastBooking", "nextBooking", "comments");
 
     private Long id;
 
@@ -1,11 +1,14 @@
 package ru.practicum.shareit.item.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.comment.dto.CommentDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +27,35 @@ public class ItemMapper {
         return dto;
     }
 
+    /**
+     * Maps an item as its owner sees it, picking the last and next bookings in one pass over {@code bookings}.
+     * The last booking is the latest one that ended before {@code now} when {@code lastByEnd} is set, otherwise
+     * the latest one that started before {@code now}; the next booking is the earliest one starting after it.
+     * Ties keep the first booking in list order.
+     */
+    public static ItemDto mapItemToOwnerItemDto(Item item, List<Booking> bookings, List<CommentDtoResponse> comments,
+                                                LocalDateTime now, boolean lastByEnd) {
+        Booking last = null;
+        Booking next = null;
+        if (bookings != null) {
+            for (int i = 0, size = bookings.size(); i < size; i++) {
+                Booking booking = bookings.get(i);
+                LocalDateTime lastTime = lastByEnd ? booking.getEnd() : booking.getStart();
+                if (lastTime.isBefore(now)
+                        && (last == null || lastTime.isAfter(lastByEnd ? last.getEnd() : last.getStart()))) {
+                    last = booking;
+                }
+                if (booking.getStart().isAfter(now) && (next == null || booking.getStart().isBefore(next.getStart()))) {
+                    next = booking;
+                }
+            }
+        }
+        return mapItemToItemDto(item,
+                last == null ? null : BookingMapper.mapBookingToDto(last),
+                next == null ? null : BookingMapper.mapBookingToDto(next),
+                comments != null ? comments : List.of());
+    }
+
     public static Item mapItemDtoToItem(ItemDto dto, User owner) {
         Item item = new Item();
         item.setOwner(owner);
@@ -43,9 +75,9 @@ public class ItemMapper {
     }
 
     public static List<ItemDto> mapItemToItemDto(List<Item> result) {
-        List<ItemDto> dtoList = new ArrayList<>();
-        for (Item item : result) {
-            dtoList.add(mapItemToItemDto(item));
+        List<ItemDto> dtoList = new ArrayList<>(result.size());
+        for (int i = 0, size = result.size(); i < size; i++) {
+            dtoList.add(mapItemToItemDto(result.get(i)));
         }
         return dtoList;
     }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -36,4 +37,12 @@ public class Item {
     @ManyToOne
     @JoinColumn(name = "request_id") // название столбца в БД
     private ItemRequest request;
+
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    @Column(insertable = false, updatable = false)
+    private double popularity;
 }
\ No newline at end of file
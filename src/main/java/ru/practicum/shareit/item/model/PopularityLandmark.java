@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row of {@code item_popularity_landmark}: the moment popularity scores of a shard are relative to.
+ */
+@Entity
+@Table(name = "item_popularity_landmark")
+@Data
+@NoArgsConstructor
+public class PopularityLandmark {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private LocalDateTime landmark;
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.comment.dto.CommentDtoRequest;
+import ru.practicum.shareit.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.common.FieldSelection;
+import ru.practicum.shareit.common.SingleFlight;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.shard.ShardContext;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shares one in-flight computation between concurrent identical reads of {@link ItemServiceImpl}.
+ * <p>
+ * Item reads are keyed by whether the caller owns the item, because only the owner sees last and next
+ * bookings; every other caller gets the same public view and can join the same call.
+ */
+@Primary
+@Service
+public class CoalescingItemService implements ItemService {
+    private static final int MAX_CACHED_OWNERS = 100_000;
+
+    private final ItemServiceImpl delegate;
+    private final ItemStorage itemStorage;
+    private final ShardRouter shardRouter;
+    private final Cache<Long, Long> itemOwners = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_OWNERS)
+            .build();
+    private final SingleFlight<ItemKey, ItemDto> findByIdCalls;
+    private final SingleFlight<SearchKey, List<ItemDto>> searchCalls;
+
+    public CoalescingItemService(ItemServiceImpl delegate, ItemStorage itemStorage, ShardRouter shardRouter,
+                                 MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.itemStorage = itemStorage;
+        this.shardRouter = shardRouter;
+        this.findByIdCalls = new SingleFlight<>("item.findById", meterRegistry);
+        this.searchCalls = new SingleFlight<>("item.search", meterRegistry);
+    }
+
+    @Override
+    public ItemDto create(ItemDto itemDto, Long userId) {
+        return delegate.create(itemDto, userId);
+    }
+
+    @Override
+    public CommentDtoResponse addComment(CommentDtoRequest dto, Long itemId, Long userId) {
+        return delegate.addComment(dto, itemId, userId);
+    }
+
+    @Override
+    public ItemDto update(ItemDto itemDto, Long itemId, Long userId) {
+        return delegate.update(itemDto, itemId, userId);
+    }
+
+    @Override
+    public ItemDto findById(Long itemId, Long userId, FieldSelection fields) {
+        Long ownerId = getOwnerId(itemId);
+        ItemKey key = new ItemKey(itemId, Objects.equals(ownerId, userId) ? ownerId : null, fields);
+        return findByIdCalls.execute(key, () -> delegate.findById(itemId, userId, fields));
+    }
+
+    @Override
+    public List<ItemDto> findByUserId(Long userId, FieldSelection fields) {
+        return delegate.findByUserId(userId, fields);
+    }
+
+    @Override
+    public List<ItemDto> findAllByIds(List<Long> itemIds, Long userId, FieldSelection fields) {
+        return delegate.findAllByIds(itemIds, userId, fields);
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Integer limit, FieldSelection fields) {
+        return searchCalls.execute(new SearchKey(text, limit, fields), () -> delegate.search(text, limit, fields));
+    }
+
+    @Override
+    public String getItemTag(Long itemId, Long userId, FieldSelection fields) {
+        return delegate.getItemTag(itemId, userId, fields);
+    }
+
+    @Override
+    public String getOwnerItemsTag(Long userId, FieldSelection fields) {
+        return delegate.getOwnerItemsTag(userId, fields);
+    }
+
+    private Long getOwnerId(Long itemId) {
+        return itemOwners.get(itemId, this::loadOwnerId);
+    }
+
+    private Long loadOwnerId(Long itemId) {
+        return ShardContext.call(shardRouter.shardOf(itemId), () -> itemStorage.findVersionById(itemId))
+                .orElseThrow(() -> new NotFoundException("Item with ID " + itemId + " not found"))
+                .getOwnerId();
+    }
+
+    private record ItemKey(Long itemId, Long ownerId, FieldSelection fields) {
+    }
+
+    private record SearchKey(String text, Integer limit, FieldSelection fields) {
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comment.dto.CommentDtoRequest;
 import ru.practicum.shareit.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.common.FieldSelection;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.util.List;
@@ -13,9 +14,15 @@ public interface ItemService {
 
     ItemDto update(ItemDto itemDto, Long itemId, Long userId);
 
-    ItemDto findById(Long itemId, Long userId);
+    ItemDto findById(Long itemId, Long userId, FieldSelection fields);
 
-    List<ItemDto> findByUserId(Long userId);
+    List<ItemDto> findByUserId(Long userId, FieldSelection fields);
 
-    List<ItemDto> search(String text);
+    List<ItemDto> findAllByIds(List<Long> itemIds, Long userId, FieldSelection fields);
+
+    List<ItemDto> search(String text, Integer limit, FieldSelection fields);
+
+    String getItemTag(Long itemId, Long userId, FieldSelection fields);
+
+    String getOwnerItemsTag(Long userId, FieldSelection fields);
 }
\ No newline at end of file
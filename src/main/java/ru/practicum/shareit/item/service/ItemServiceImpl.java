@@ -1,119 +1,244 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.ArchivedBookingStorage;
+import ru.practicum.shareit.booking.storage.BookingRollup;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.RentalEligibilityIndex;
+import ru.practicum.shareit.cache.CacheInvalidationBus;
+import ru.practicum.shareit.cache.CacheRegion;
 import ru.practicum.shareit.comment.dto.CommentDtoRequest;
 import ru.practicum.shareit.comment.dto.CommentDtoResponse;
 import ru.practicum.shareit.comment.mapper.CommentMapper;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.common.EntityTags;
+import ru.practicum.shareit.common.FieldSelection;
+import ru.practicum.shareit.common.VersionRollup;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemPopularity;
+import ru.practicum.shareit.item.storage.ItemSearchCache;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.item.storage.ItemVersion;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxWriter;
+import ru.practicum.shareit.shard.ShardKey;
+import ru.practicum.shareit.shard.ShardRouter;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final Comparator<Item> MOST_POPULAR_FIRST = Comparator.comparingDouble(Item::getPopularity)
+            .reversed()
+            .thenComparing(Item::getId);
+
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
     private final BookingStorage bookingStorage;
+    private final ArchivedBookingStorage archivedBookingStorage;
+    private final RentalEligibilityIndex rentalEligibilityIndex;
     private final CommentStorage commentStorage;
+    private final ItemSearchCache searchCache;
+    private final ItemPopularity itemPopularity;
+    private final OutboxWriter outboxWriter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ShardRouter shardRouter;
 
     @Override
     @Transactional
-    public ItemDto create(ItemDto itemDto, Long userId) {
+    public ItemDto create(ItemDto itemDto, @ShardKey Long userId) {
         validateItemDto(itemDto);
         User owner = getUserOrThrow(userId);
         Item item = ItemMapper.mapItemDtoToItem(itemDto, owner);
         item.setOwner(owner);
-        return ItemMapper.mapItemToItemDto(itemStorage.save(item), null, null, List.of());
+
+        Item saved = itemStorage.save(item);
+        searchCache.onItemSaved(saved);
+        cacheInvalidationBus.publish(CacheRegion.ITEM, saved.getId());
+
+        ItemDto created = ItemMapper.mapItemToItemDto(saved, null, null, List.of());
+        outboxWriter.append(OutboxEventType.ITEM_CREATED, created.getId(), created);
+        return created;
     }
 
     @Override
     @Transactional
-    public CommentDtoResponse addComment(CommentDtoRequest dto, Long itemId, Long userId) {
+    public CommentDtoResponse addComment(CommentDtoRequest dto, @ShardKey Long itemId, Long userId) {
         User author = getUserOrThrow(userId);
         Item item = getItemOrThrow(itemId);
-        List<Booking> bookings = bookingStorage.findAllByUserIdAndItemIdAndEndBeforeOrderByStartDesc(userId, itemId, LocalDateTime.now());
-
-        if (bookings.isEmpty()) {
+        if (!rentalEligibilityIndex.hasRented(userId, itemId, LocalDateTime.now())) {
             throw new ValidationException("User " + userId + " has not rented item " + itemId);
         }
 
         Comment comment = commentStorage.save(CommentMapper.mapDtoToComment(dto, author, item));
-        return CommentMapper.mapCommentToDto(comment);
+        itemPopularity.onCommentAdded(itemId, comment.getCreated());
+
+        CommentDtoResponse response = CommentMapper.mapCommentToDto(comment);
+        outboxWriter.append(OutboxEventType.COMMENT_ADDED, itemId, response);
+        return response;
     }
 
     @Override
     @Transactional
-    public ItemDto update(ItemDto itemDto, Long itemId, Long userId) {
+    public ItemDto update(ItemDto itemDto, @ShardKey Long itemId, Long userId) {
         Item item = getItemIfOwner(itemId, userId);
         updateItemFields(item, itemDto);
         Item updated = itemStorage.save(item);
+        searchCache.onItemSaved(updated);
+        cacheInvalidationBus.publish(CacheRegion.ITEM, itemId);
         List<CommentDtoResponse> comments = getCommentsDto(itemId);
-        return ItemMapper.mapItemToItemDto(updated, null, null, comments);
+
+        ItemDto response = ItemMapper.mapItemToItemDto(updated, null, null, comments);
+        outboxWriter.append(OutboxEventType.ITEM_UPDATED, itemId, response);
+        return response;
     }
 
     @Override
-    public ItemDto findById(Long itemId, Long userId) {
+    public ItemDto findById(@ShardKey Long itemId, Long userId, FieldSelection fields) {
         Item item = getItemOrThrow(itemId);
-        List<CommentDtoResponse> comments = getCommentsDto(itemId);
-
-        if (item.getOwner() != null && item.getOwner().getId().equals(userId)) {
-            List<Booking> bookings = bookingStorage.findAllByItemId(itemId);
-            LocalDateTime now = LocalDateTime.now();
+        List<CommentDtoResponse> comments = fields.includes("comments") ? getCommentsDto(itemId) : null;
 
-            BookingDtoResponse last = getLastBookingDto(bookings, now);
-            BookingDtoResponse next = getNextBookingDto(bookings, now);
-
-            return ItemMapper.mapItemToItemDto(item, last, next, comments);
+        if (item.getOwner() != null && item.getOwner().getId().equals(userId)
+                && fields.includesAny("lastBooking", "nextBooking")) {
+            List<Booking> bookings = withLatestArchived(bookingStorage.findAllByItemId(itemId), List.of(itemId));
+            return ItemMapper.mapItemToOwnerItemDto(item, bookings, comments, LocalDateTime.now(), false);
         }
 
         return ItemMapper.mapItemToItemDto(item, null, null, comments);
     }
 
     @Override
-    public List<ItemDto> findByUserId(Long userId) {
+    public List<ItemDto> findByUserId(@ShardKey Long userId, FieldSelection fields) {
         List<Item> items = getItemsByUserId(userId);
-        Map<Long, List<Booking>> bookingsGroup = getBookingsGroupedByItemId(items);
-        Map<Long, List<CommentDtoResponse>> commentsGroup = getCommentsGroupedByItemId(items);
+        Map<Long, List<Booking>> bookingsGroup = fields.includesAny("lastBooking", "nextBooking")
+                ? getBookingsGroupedByItemId(items)
+                : Map.of();
+        Map<Long, List<CommentDtoResponse>> commentsGroup = fields.includes("comments")
+                ? getCommentsGroupedByItemId(items)
+                : Map.of();
         LocalDateTime now = LocalDateTime.now();
 
-        return items.stream()
-                .map(item -> mapToItemDto(item, bookingsGroup.get(item.getId()), commentsGroup.get(item.getId()), now))
-                .toList();
+        List<ItemDto> result = new ArrayList<>(items.size());
+        for (int i = 0, size = items.size(); i < size; i++) {
+            Item item = items.get(i);
+            result.add(ItemMapper.mapItemToOwnerItemDto(item, bookingsGroup.get(item.getId()),
+                    commentsGroup.get(item.getId()), now, true));
+        }
+        return result;
     }
 
     @Override
-    public List<ItemDto> search(String text) {
+    public List<ItemDto> findAllByIds(List<Long> itemIds, Long userId, FieldSelection fields) {
+        Set<Long> ids = new LinkedHashSet<>(itemIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("At most " + MAX_BATCH_SIZE + " item ids can be requested at once");
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Item> items = shardRouter.gather(() -> itemStorage.findAllByIdIn(ids));
+        Map<Long, Item> itemsById = HashMap.newHashMap(items.size());
+        List<Item> ownedItems = new ArrayList<>();
+        for (int i = 0, size = items.size(); i < size; i++) {
+            Item item = items.get(i);
+            itemsById.put(item.getId(), item);
+            if (item.getOwner().getId().equals(userId)) {
+                ownedItems.add(item);
+            }
+        }
+
+        boolean withBookings = !ownedItems.isEmpty() && fields.includesAny("lastBooking", "nextBooking");
+        Map<Long, List<Booking>> bookingsGroup = withBookings
+                ? gatherBookingsGroupedByItemId(ownedItems)
+                : Map.of();
+        Map<Long, List<CommentDtoResponse>> commentsGroup = !items.isEmpty() && fields.includes("comments")
+                ? gatherCommentsGroupedByItemId(items)
+                : Map.of();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ItemDto> result = new ArrayList<>(items.size());
+        for (Long id : ids) {
+            Item item = itemsById.get(id);
+            if (item == null) {
+                continue;
+            }
+            List<CommentDtoResponse> comments = commentsGroup.getOrDefault(id, List.of());
+            if (item.getOwner().getId().equals(userId)) {
+                result.add(ItemMapper.mapItemToOwnerItemDto(item, bookingsGroup.get(id), comments, now, false));
+            } else {
+                result.add(ItemMapper.mapItemToItemDto(item, null, null, comments));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Integer limit, FieldSelection fields) {
+        if (limit != null && limit <= 0) {
+            throw new ValidationException("Parameter size must be positive");
+        }
         if (text.isBlank()) {
             return new ArrayList<>();
         }
+        List<Item> items = searchItems(text, limit);
 
-        List<Item> items = itemStorage.findByNameContainingIgnoreCase(text);
-        items.addAll(itemStorage.findByDescriptionContainingIgnoreCase(text));
+        // Search results carry no comments unless they are asked for by name.
+        if (fields.isAll() || !fields.includes("comments") || items.isEmpty()) {
+            return ItemMapper.mapItemToItemDto(items);
+        }
+        Map<Long, List<CommentDtoResponse>> commentsGroup = gatherCommentsGroupedByItemId(items);
+        List<ItemDto> result = new ArrayList<>(items.size());
+        for (int i = 0, size = items.size(); i < size; i++) {
+            Item item = items.get(i);
+            result.add(ItemMapper.mapItemToItemDto(item, null, null,
+                    commentsGroup.getOrDefault(item.getId(), List.of())));
+        }
+        return result;
+    }
 
-        List<Item> result = items
-                .stream()
-                .filter(Item::getAvailable)
-                .toList();
+    @Override
+    public String getItemTag(@ShardKey Long itemId, Long userId, FieldSelection fields) {
+        ItemVersion item = itemStorage.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item with ID " + itemId + " not found"));
+        VersionRollup comments = commentStorage.rollupByItemId(itemId);
 
-        return ItemMapper.mapItemToItemDto(result);
+        if (!Objects.equals(item.getOwnerId(), userId)) {
+            return EntityTags.of("item", itemId, EntityTags.describe(fields), item.getVersion(),
+                    EntityTags.describe(comments));
+        }
+
+        BookingRollup bookings = bookingStorage.rollupByItemId(itemId, LocalDateTime.now());
+        return EntityTags.of("item", itemId, EntityTags.describe(fields), item.getVersion(),
+                EntityTags.describe(comments), "owner", EntityTags.describe(bookings), bookings.getNextStart(),
+                bookings.getNextEnd());
+    }
+
+    @Override
+    public String getOwnerItemsTag(@ShardKey Long userId, FieldSelection fields) {
+        VersionRollup items = itemStorage.rollupByOwnerId(userId);
+        VersionRollup comments = commentStorage.rollupByItemOwnerId(userId);
+        BookingRollup bookings = bookingStorage.rollupByItemOwnerId(userId, LocalDateTime.now());
+
+        return EntityTags.of("owner-items", userId, EntityTags.describe(fields), EntityTags.describe(items),
+                EntityTags.describe(comments), EntityTags.describe(bookings), bookings.getNextStart(),
+                bookings.getNextEnd());
     }
 
     private void validateItemDto(ItemDto itemDto) {
@@ -153,64 +278,118 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private List<CommentDtoResponse> getCommentsDto(Long itemId) {
-        return commentStorage.findAllByItemId(itemId).stream()
-                .map(CommentMapper::mapCommentToDto)
-                .collect(Collectors.toList());
+        return CommentMapper.mapCommentToDto(commentStorage.findAllByItemId(itemId));
     }
 
-    private BookingDtoResponse getLastBookingDto(List<Booking> bookings, LocalDateTime now) {
-        return bookings.stream()
-                .filter(b -> b.getStart().isBefore(now))
-                .max(Comparator.comparing(Booking::getStart))
-                .map(BookingMapper::mapBookingToDto)
-                .orElse(null);
+    private List<Item> getItemsByUserId(Long userId) {
+        return itemStorage.findByOwnerId(userId);
     }
 
-    private BookingDtoResponse getNextBookingDto(List<Booking> bookings, LocalDateTime now) {
-        return bookings.stream()
-                .filter(b -> b.getStart().isAfter(now))
-                .min(Comparator.comparing(Booking::getStart))
-                .map(BookingMapper::mapBookingToDto)
-                .orElse(null);
+    private Map<Long, List<Booking>> getBookingsGroupedByItemId(List<Item> items) {
+        List<Long> itemIds = getItemIds(items);
+        List<Booking> bookings = withLatestArchived(bookingStorage.findAllByItemIdOrderByStartDesc(itemIds), itemIds);
+        return BookingMapper.groupByItemId(bookings, items.size());
     }
 
-    private List<Item> getItemsByUserId(Long userId) {
-        return itemStorage.findByOwnerId(userId);
+    private Map<Long, List<Booking>> gatherBookingsGroupedByItemId(List<Item> items) {
+        List<Long> itemIds = getItemIds(items);
+        List<Booking> bookings = shardRouter.gather(
+                () -> withLatestArchived(bookingStorage.findAllByItemIdOrderByStartDesc(itemIds), itemIds));
+        return BookingMapper.groupByItemId(bookings, items.size());
     }
 
-    private Map<Long, List<Booking>> getBookingsGroupedByItemId(List<Item> items) {
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
-        List<Booking> bookings = bookingStorage.findAllByItemIdOrderByStartDesc(itemIds);
-        return bookings.stream().collect(Collectors.groupingBy(b -> b.getItem().getId()));
+    /**
+     * Adds the archived bookings that can still be an item's last booking; archived bookings have all ended, so
+     * they are never its next one.
+     */
+    private List<Booking> withLatestArchived(List<Booking> bookings, List<Long> itemIds) {
+        List<Booking> result = new ArrayList<>(bookings);
+        result.addAll(BookingMapper.mapArchivedToBooking(archivedBookingStorage.findLatestByItemIdIn(itemIds)));
+        return result;
     }
 
     private Map<Long, List<CommentDtoResponse>> getCommentsGroupedByItemId(List<Item> items) {
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
-        List<Comment> comments = commentStorage.findAllByItemId(itemIds);
-        return comments.stream().collect(Collectors.groupingBy(
-                c -> c.getItem().getId(),
-                Collectors.mapping(CommentMapper::mapCommentToDto, Collectors.toList())
-        ));
+        List<Comment> comments = commentStorage.findAllByItemId(getItemIds(items));
+        return CommentMapper.groupByItemId(comments, items.size());
     }
 
-    private ItemDto mapToItemDto(Item item, List<Booking> bookings, List<CommentDtoResponse> comments, LocalDateTime now) {
-        List<Booking> bookingList = bookings != null ? bookings : Collections.emptyList();
-        List<CommentDtoResponse> commentList = comments != null ? comments : Collections.emptyList();
+    private Map<Long, List<CommentDtoResponse>> gatherCommentsGroupedByItemId(List<Item> items) {
+        List<Long> itemIds = getItemIds(items);
+        List<Comment> comments = shardRouter.gather(() -> commentStorage.findAllByItemId(itemIds));
+        return CommentMapper.groupByItemId(comments, items.size());
+    }
 
-        BookingDtoResponse bookingLast = bookingList.stream()
-                .filter(b -> b.getEnd().isBefore(now))
-                .max(Comparator.comparing(Booking::getEnd))
-                .map(BookingMapper::mapBookingToDto)
-                .orElse(null);
+    private List<Item> searchItems(String text, Integer limit) {
+        if (!searchCache.isEnabled()) {
+            return searchAvailable(text, limit);
+        }
 
-        BookingDtoResponse bookingNext = bookingList.stream()
-                .filter(b -> b.getStart().isAfter(now))
-                .min(Comparator.comparing(Booking::getStart))
-                .map(BookingMapper::mapBookingToDto)
-                .orElse(null);
+        String key = searchCache.toKey(text);
+        long[] cachedIds = searchCache.get(key);
+        if (cachedIds != null) {
+            List<Item> cached = getAvailableItemsInOrder(cachedIds);
+            return limit == null || cached.size() <= limit ? cached : cached.subList(0, limit);
+        }
+        if (limit != null) {
+            // Only complete rankings are cached; a top-k miss is answered straight from the index.
+            return searchAvailable(text, limit);
+        }
 
-        return ItemMapper.mapItemToItemDto(item, bookingLast, bookingNext, commentList);
+        long startedAt = searchCache.begin();
+        List<Item> result = searchAvailable(text, null);
+        long[] ids = new long[result.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = result.get(i).getId();
+        }
+        searchCache.put(key, startedAt, ids);
+        return result;
+    }
+
+    private List<Item> searchAvailable(String text, Integer limit) {
+        String pattern = "%" + escapeLike(text) + "%";
+        Limit maxResults = limit == null ? Limit.unlimited() : Limit.of(limit);
+        List<Item> items = shardRouter.gather(() -> itemStorage.searchAvailable(pattern, maxResults));
+        if (shardRouter.shardCount() == 1) {
+            return items;
+        }
+
+        items.sort(MOST_POPULAR_FIRST);
+        return limit == null || items.size() <= limit ? items : new ArrayList<>(items.subList(0, limit));
     }
-}
 
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 
+    private List<Item> getAvailableItemsInOrder(long[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        Set<Long> distinctIds = HashSet.newHashSet(ids.length);
+        for (long id : ids) {
+            distinctIds.add(id);
+        }
+        List<Item> items = shardRouter.gather(() -> itemStorage.findAllByIdIn(distinctIds));
+        Map<Long, Item> itemsById = HashMap.newHashMap(items.size());
+        for (int i = 0, size = items.size(); i < size; i++) {
+            itemsById.put(items.get(i).getId(), items.get(i));
+        }
+
+        List<Item> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Item item = itemsById.get(id);
+            if (item != null && item.getAvailable()) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private List<Long> getItemIds(List<Item> items) {
+        List<Long> itemIds = new ArrayList<>(items.size());
+        for (int i = 0, size = items.size(); i < size; i++) {
+            itemIds.add(items.get(i).getId());
+        }
+        return itemIds;
+    }
+}
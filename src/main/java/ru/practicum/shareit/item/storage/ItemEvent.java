@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.storage;
+
+import java.time.LocalDateTime;
+
+public interface ItemEvent {
+    Long getItemId();
+
+    LocalDateTime getAt();
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.PopularityLandmark;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Maintains the time-decayed popularity score stored in {@code items.popularity}.
+ * <p>
+ * Scores use forward decay: an event is added with its weight scaled by {@code 2^((t - landmark) / halfLife)}
+ * instead of decaying every stored score as time passes. All scores would be divided by the same factor at
+ * any given moment, so comparing the stored values ranks items exactly as decayed scores would, and every
+ * event is a single increment of one row.
+ * <p>
+ * The weights grow without bound as the landmark falls behind, so once it is {@code landmark-rotation-age} old
+ * the landmark of each shard is moved forward by whole half-lives and all stored scores are divided by the same
+ * power of two in one statement. Dividing by a power of two is exact, and the landmark row lock keeps scoring
+ * writes on one side of the rotation. Shards rotate one after another, so for that short window a
+ * cross-shard search may rank items of a rotated shard too low.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemPopularity {
+
+    private final ItemStorage itemStorage;
+    private final PopularityLandmarkStorage landmarkStorage;
+    private final ItemSearchCache searchCache;
+    private final ItemPopularityProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public void onBookingApproved(Long itemId, LocalDateTime at) {
+        itemStorage.addPopularity(itemId, bookingBoost(lockLandmark(), at));
+    }
+
+    public void onCommentAdded(Long itemId, LocalDateTime at) {
+        itemStorage.addPopularity(itemId, commentBoost(lockLandmark(), at));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.popularity.landmark-check-interval:PT1H}")
+    public void rotateLandmark() {
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] rotated = new boolean[1];
+        shardRouter.forEachShard(() -> rotated[0] |= rotateShard(now));
+        if (rotated[0]) {
+            searchCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the landmark of the current shard, locked until the end of the transaction against rotation.
+     */
+    LocalDateTime lockLandmark() {
+        return landmarkStorage.lockForScoring().getLandmark();
+    }
+
+    double bookingBoost(LocalDateTime landmark, LocalDateTime at) {
+        return boost(properties.getBookingWeight(), landmark, at);
+    }
+
+    double commentBoost(LocalDateTime landmark, LocalDateTime at) {
+        return boost(properties.getCommentWeight(), landmark, at);
+    }
+
+    private boolean rotateShard(LocalDateTime now) {
+        LocalDateTime current = landmarkStorage.findById(PopularityLandmark.ID).orElseThrow().getLandmark();
+        if (Duration.between(current, now).compareTo(properties.getLandmarkRotationAge()) < 0) {
+            return false;
+        }
+
+        Boolean rotated = transactionTemplate.execute(status -> {
+            PopularityLandmark landmark = landmarkStorage.lockForRotation();
+            if (Duration.between(landmark.getLandmark(), now).compareTo(properties.getLandmarkRotationAge()) < 0) {
+                return false;
+            }
+            long halfLives = Duration.between(landmark.getLandmark(), now).dividedBy(properties.getHalfLife());
+            itemStorage.scalePopularity(Math.scalb(1.0, (int) -halfLives));
+            landmark.setLandmark(landmark.getLandmark().plus(properties.getHalfLife().multipliedBy(halfLives)));
+            log.info("Item popularity landmark moved {} half-lives forward to {}", halfLives, landmark.getLandmark());
+            return true;
+        });
+        return Boolean.TRUE.equals(rotated);
+    }
+
+    private double boost(double weight, LocalDateTime landmark, LocalDateTime at) {
+        double halfLives = (double) Duration.between(landmark, at).toSeconds() / properties.getHalfLife().toSeconds();
+        return weight * Math.pow(2, halfLives);
+    }
+}
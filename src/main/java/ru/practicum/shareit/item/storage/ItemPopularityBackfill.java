@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recomputes {@code items.popularity} from approved bookings, including archived ones, and comments.
+ * <p>
+ * Meant to run once, with {@code backfill-on-startup} enabled for a single deployment, to score items whose
+ * bookings and comments predate popularity tracking. The approval time of old bookings is not stored, so their
+ * start is used, capped at the time of the run. Items are processed in id order in batches, each in its own
+ * transaction that locks the items first: a concurrent approval or comment either commits before the batch
+ * reads and is included in the recomputed score, or waits for the batch and is added on top of it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.item.popularity", name = "backfill-on-startup", havingValue = "true")
+public class ItemPopularityBackfill {
+
+    private final ItemStorage itemStorage;
+    private final ItemPopularity itemPopularity;
+    private final ItemPopularityProperties properties;
+    private final ItemSearchCache searchCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        int[] items = new int[1];
+        shardRouter.forEachShard(() -> items[0] += runShard(now));
+        searchCache.invalidateAll();
+        log.info("Item popularity backfill: {} items rescored", items[0]);
+    }
+
+    private int runShard(LocalDateTime now) {
+        long afterId = 0;
+        int items = 0;
+        while (true) {
+            List<Long> itemIds = itemStorage.findIdsAfter(afterId, properties.getBackfillBatchSize());
+            if (itemIds.isEmpty()) {
+                return items;
+            }
+            transactionTemplate.executeWithoutResult(status -> rescore(itemIds, now));
+            items += itemIds.size();
+            afterId = itemIds.get(itemIds.size() - 1);
+        }
+    }
+
+    private void rescore(List<Long> itemIds, LocalDateTime now) {
+        LocalDateTime landmark = itemPopularity.lockLandmark();
+        itemStorage.lockAllByIdIn(itemIds);
+
+        Map<Long, Double> scores = HashMap.newHashMap(itemIds.size());
+        for (Long itemId : itemIds) {
+            scores.put(itemId, 0.0);
+        }
+        for (ItemEvent booking : itemStorage.findApprovedBookingStartsByItemIdIn(itemIds)) {
+            LocalDateTime at = booking.getAt().isAfter(now) ? now : booking.getAt();
+            scores.merge(booking.getItemId(), itemPopularity.bookingBoost(landmark, at), Double::sum);
+        }
+        for (ItemEvent comment : itemStorage.findCommentTimesByItemIdIn(itemIds)) {
+            scores.merge(comment.getItemId(), itemPopularity.commentBoost(landmark, comment.getAt()), Double::sum);
+        }
+        for (Map.Entry<Long, Double> score : scores.entrySet()) {
+            itemStorage.setPopularity(score.getKey(), score.getValue());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.item.popularity")
+public class ItemPopularityProperties {
+
+    private Duration halfLife = Duration.ofDays(14);
+
+    private double bookingWeight = 1.0;
+
+    private double commentWeight = 0.5;
+
+    private boolean backfillOnStartup = false;
+
+    private int backfillBatchSize = 200;
+
+    private Duration landmarkRotationAge = Duration.ofDays(364);
+
+    private Duration landmarkCheckInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.item.storage;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.cache.CacheInvalidationListener;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches item search results as arrays of item IDs keyed by the lower-cased search text.
+ * <p>
+ * Every committed item write gets the next number of a global write sequence and is recorded with its new
+ * name, description and availability. A write evicts only the terms whose cached result contains the item or
+ * whose text the item matches now; every other entry survives. A search remembers the sequence number it
+ * started at and stores its result only if no write recorded since then could have changed it, so results
+ * computed from data that was concurrently rewritten are never cached. Writes older than the retained log
+ * make such a search skip caching rather than guess. Item writes on other nodes arrive as bare item IDs, so
+ * their current text is read back before they are recorded.
+ * <p>
+ * Popularity changes reorder results without any write being recorded, so entries also expire {@code ttl} after
+ * they were stored, and at most {@code max-entries} are kept.
+ */
+@Component
+public class ItemSearchCache implements CacheInvalidationListener {
+
+    private final ItemSearchCacheProperties properties;
+    private final ItemStorage itemStorage;
+    private final ShardRouter shardRouter;
+    private final Map<String, long[]> entries;
+    private final Deque<Write> writes = new ConcurrentLinkedDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int writeCount;
+    private volatile long oldestWrite = 1;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ItemSearchCache(ItemSearchCacheProperties properties, ItemStorage itemStorage, ShardRouter shardRouter,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.itemStorage = itemStorage;
+        this.shardRouter = shardRouter;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .<String, long[]>build()
+                .asMap();
+        this.hits = meterRegistry.counter("shareit.item.search.cache", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.item.search.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("shareit.item.search.cache.size", Tags.empty(),
+                entries);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String toKey(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    public long[] get(String key) {
+        long[] ids = entries.get(key);
+        if (ids == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the write sequence number to pass to {@link #put} once the search has been run.
+     */
+    public long begin() {
+        return sequence.get();
+    }
+
+    public void put(String key, long startedAt, long[] ids) {
+        if (isStale(key, startedAt, ids)) {
+            return;
+        }
+        entries.put(key, ids);
+        if (isStale(key, startedAt, ids)) {
+            entries.remove(key, ids);
+        }
+    }
+
+    public void onItemSaved(Item item) {
+        long itemId = item.getId();
+        String name = toKey(item.getName());
+        String description = toKey(item.getDescription());
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        afterCommit(() -> record(itemId, name, description, available));
+    }
+
+    @Override
+    public void invalidate(CacheRegion region, Set<Long> ids) {
+        if (region != CacheRegion.ITEM) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(ids);
+        for (Item item : shardRouter.gather(() -> itemStorage.findAllById(ids))) {
+            missing.remove(item.getId());
+            record(item.getId(), toKey(item.getName()), toKey(item.getDescription()),
+                    Boolean.TRUE.equals(item.getAvailable()));
+        }
+        for (Long itemId : missing) {
+            record(itemId, "", "", false);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (writes) {
+            oldestWrite = sequence.incrementAndGet() + 1;
+            writes.clear();
+            writeCount = 0;
+        }
+        entries.clear();
+    }
+
+    private void record(long itemId, String name, String description, boolean available) {
+        Write write;
+        synchronized (writes) {
+            write = new Write(sequence.incrementAndGet(), itemId, name, description, available);
+            writes.addLast(write);
+            if (++writeCount > properties.getWriteLogSize()) {
+                oldestWrite = writes.getFirst().sequence() + 1;
+                writes.removeFirst();
+                writeCount--;
+            }
+        }
+        entries.entrySet().removeIf(entry -> write.affects(entry.getKey(), entry.getValue()));
+    }
+
+    private boolean isStale(String key, long startedAt, long[] ids) {
+        Iterator<Write> recent = writes.descendingIterator();
+        while (recent.hasNext()) {
+            Write write = recent.next();
+            if (write.sequence() <= startedAt) {
+                break;
+            }
+            if (write.affects(key, ids)) {
+                return true;
+            }
+        }
+        return startedAt + 1 < oldestWrite;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Write(long sequence, long itemId, String name, String description, boolean available) {
+
+        boolean affects(String key, long[] ids) {
+            for (long id : ids) {
+                if (id == itemId) {
+                    return true;
+                }
+            }
+            return available && (name.contains(key) || description.contains(key));
+        }
+    }
+}
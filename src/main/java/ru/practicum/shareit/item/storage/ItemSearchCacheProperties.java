@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.item.search-cache")
+public class ItemSearchCacheProperties {
+
+    private boolean enabled = true;
+
+    private int maxEntries = 1_000;
+
+    private int writeLogSize = 1_024;
+
+    private Duration ttl = Duration.ofMinutes(5);
+}
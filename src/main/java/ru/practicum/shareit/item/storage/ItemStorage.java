@@ -1,16 +1,82 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.common.VersionRollup;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Item lookups for requests, by id, by owner and by text, skip items whose owner is marked deleted, so the items
+ * disappear together with the owner while {@code UserPurger} has not removed them yet.
+ */
 @Repository
 public interface ItemStorage extends JpaRepository<Item, Long> {
-    List<Item> findByOwnerId(Long id);
+    @Query("select i from Item as i where i.owner.id = :ownerId and i.owner.deletedAt is null")
+    List<Item> findByOwnerId(@Param("ownerId") Long ownerId);
 
-    List<Item> findByNameContainingIgnoreCase(String text);
+    @Override
+    @Query("select i from Item as i where i.id = :id and i.owner.deletedAt is null")
+    Optional<Item> findById(@Param("id") Long id);
 
-    List<Item> findByDescriptionContainingIgnoreCase(String text);
+    /**
+     * Returns available items whose name or description matches the escaped {@code LIKE} pattern, most popular
+     * first. The order follows {@code items_popularity_idx}, so a limited search stops after {@code limit} matches.
+     */
+    @Query("select i from Item as i where i.available = true and i.owner.deletedAt is null " +
+            "and (upper(i.name) like upper(:pattern) escape '\\' " +
+            "or upper(i.description) like upper(:pattern) escape '\\') " +
+            "order by i.popularity desc, i.id")
+    List<Item> searchAvailable(@Param("pattern") String pattern, Limit limit);
+
+    @Modifying
+    @Query(value = "update items set popularity = popularity + :delta where id = :itemId", nativeQuery = true)
+    int addPopularity(@Param("itemId") Long itemId, @Param("delta") double delta);
+
+    @Modifying
+    @Query(value = "update items set popularity = :popularity where id = :itemId", nativeQuery = true)
+    int setPopularity(@Param("itemId") Long itemId, @Param("popularity") double popularity);
+
+    @Modifying
+    @Query(value = "update items set popularity = popularity * :factor", nativeQuery = true)
+    int scalePopularity(@Param("factor") double factor);
+
+    @Query(value = "select id from items where id > :afterId order by id limit :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Query(value = "select id from items where id in :itemIds order by id for update", nativeQuery = true)
+    List<Long> lockAllByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query(value = "select item_id as \"itemId\", start_time as \"at\" from bookings " +
+            "where item_id in :itemIds and status = 'APPROVED' " +
+            "union all " +
+            "select item_id as \"itemId\", start_time as \"at\" from bookings_archive " +
+            "where item_id in :itemIds and status = 'APPROVED'", nativeQuery = true)
+    List<ItemEvent> findApprovedBookingStartsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query(value = "select item_id as \"itemId\", created as \"at\" from comments where item_id in :itemIds",
+            nativeQuery = true)
+    List<ItemEvent> findCommentTimesByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select i from Item as i join fetch i.owner left join fetch i.request as r left join fetch r.owner " +
+            "where i.id in :itemIds and i.owner.deletedAt is null")
+    List<Item> findAllByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select i.id from Item as i where i.id in :itemIds and i.owner.deletedAt is null")
+    List<Long> findIdsByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("select i.version + i.owner.version as version, i.owner.id as ownerId from Item as i " +
+            "where i.id = :itemId and i.owner.deletedAt is null")
+    Optional<ItemVersion> findVersionById(@Param("itemId") Long itemId);
+
+    @Query("select count(i) as count, coalesce(sum(i.version + i.owner.version), 0) as versions, " +
+            "coalesce(max(i.id), 0) as maxId from Item as i where i.owner.id = :ownerId")
+    VersionRollup rollupByOwnerId(@Param("ownerId") Long ownerId);
 }
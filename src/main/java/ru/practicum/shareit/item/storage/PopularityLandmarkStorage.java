@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.storage;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.PopularityLandmark;
+
+/**
+ * Scoring writes hold a shared lock on the landmark and rotation an exclusive one, so no score is added against
+ * a landmark that a concurrent rotation is replacing.
+ */
+@Repository
+public interface PopularityLandmarkStorage extends JpaRepository<PopularityLandmark, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select l from PopularityLandmark as l where l.id = " + PopularityLandmark.ID)
+    PopularityLandmark lockForScoring();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from PopularityLandmark as l where l.id = " + PopularityLandmark.ID)
+    PopularityLandmark lockForRotation();
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.outbox.model;
+
+public enum OutboxEventType {
+    BOOKING_CREATED("booking"),
+    BOOKING_STATUS_CHANGED("booking"),
+    BOOKING_EXPIRED("booking"),
+    BOOKING_ARCHIVED("booking"),
+    ITEM_CREATED("item"),
+    ITEM_UPDATED("item"),
+    COMMENT_ADDED("item"),
+    USER_CREATED("user"),
+    USER_UPDATED("user"),
+    USER_DELETED("user");
+
+    private final String aggregateType;
+
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
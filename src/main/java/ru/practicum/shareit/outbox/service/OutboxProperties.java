@@ -0,0 +1,21 @@
+package ru.practicum.shareit.outbox.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.outbox")
+public class OutboxProperties {
+
+    private boolean relayEnabled = true;
+
+    private String sink;
+
+    private String filePath = "outbox-events.jsonl";
+
+    private int memoryCapacity = 10_000;
+
+    private int batchSize = 100;
+
+    private int maxBatchesPerRun = 10;
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.outbox.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+import ru.practicum.shareit.outbox.storage.OutboxStorage;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes committed outbox rows to the configured {@link OutboxSink} in batches.
+ * <p>
+ * A batch is read in id order under row locks, so relays on several nodes never publish the same rows
+ * concurrently. After the sink answers, only the acknowledged prefix of every aggregate is deleted: once an
+ * event of an aggregate is not acknowledged, later events of that aggregate stay in the outbox, which keeps
+ * delivery ordered per aggregate.
+ * <p>
+ * Ids are taken from the sequence when a row is inserted, not when it commits, so a row can become visible after
+ * rows with higher ids have already been published. The relay therefore promises no order across aggregates.
+ * Within an aggregate the order holds because every event is written in the transaction that writes the
+ * aggregate's row: two concurrent writers of one aggregate either wait for each other's row lock or conflict on
+ * its version and one of them rolls back, so an event never commits before an earlier event of its aggregate.
+ * <p>
+ * There is no production sink by default: the application refuses to start with the relay enabled until
+ * {@code shareit.outbox.sink} names one. The {@code file} and {@code memory} sinks are for development and tests.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.outbox", name = "relay-enabled", havingValue = "true",
+        matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxStorage outboxStorage;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+    private final ShardRouter shardRouter;
+    private final Counter publishedCounter;
+    private final Counter deferredCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public OutboxRelay(OutboxStorage outboxStorage,
+                       ObjectProvider<OutboxSink> sink,
+                       TransactionTemplate transactionTemplate,
+                       OutboxProperties properties,
+                       ShardRouter shardRouter,
+                       MeterRegistry meterRegistry) {
+        this.outboxStorage = outboxStorage;
+        this.sink = sink.getIfAvailable(() -> {
+            throw new IllegalStateException("No outbox sink is configured for shareit.outbox.sink="
+                    + properties.getSink() + "; set it to a supported sink or disable shareit.outbox.relay-enabled");
+        });
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.publishedCounter = meterRegistry.counter("shareit.outbox.published");
+        this.deferredCounter = meterRegistry.counter("shareit.outbox.deferred");
+        meterRegistry.gauge("shareit.outbox.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.relay-interval:PT1S}")
+    public void relay() {
+        AtomicLong lag = new AtomicLong();
+        shardRouter.forEachShard(() -> {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                Integer published = transactionTemplate.execute(status -> relayBatch());
+                if (published == null || published < properties.getBatchSize()) {
+                    break;
+                }
+            }
+
+            LocalDateTime oldest = outboxStorage.findOldestCreated();
+            lag.accumulateAndGet(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toSeconds(),
+                    Math::max);
+        });
+        lagSeconds.set(lag.get());
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxStorage.findAllByOrderByIdAsc(PageRequest.of(0, properties.getBatchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> acked = sink.publish(batch);
+        Set<String> blockedAggregates = new HashSet<>();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (acked.contains(event.getId()) && !blockedAggregates.contains(aggregate)) {
+                delivered.add(event.getId());
+            } else {
+                blockedAggregates.add(aggregate);
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxStorage.deleteAllByIdIn(delivered);
+        }
+        publishedCounter.increment(delivered.size());
+        deferredCounter.increment(batch.size() - delivered.size());
+        return delivered.size();
+    }
+}
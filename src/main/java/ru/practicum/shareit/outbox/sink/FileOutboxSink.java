@@ -0,0 +1,69 @@
+package ru.practicum.shareit.outbox.sink;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.service.OutboxProperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Appends events to a local JSON Lines file. A batch is acknowledged only after it has been flushed.
+ * <p>
+ * Meant for development: the file is never rotated or truncated, so it is only used when
+ * {@code shareit.outbox.sink=file} is set explicitly, as the {@code dev} profile does.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.outbox", name = "sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        this.path = Path.of(properties.getFilePath());
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized Set<Long> publish(List<OutboxEvent> batch) {
+        Set<Long> acked = new HashSet<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEvent event : batch) {
+                writer.write(objectMapper.writeValueAsString(toJson(event)));
+                writer.newLine();
+            }
+            writer.flush();
+            for (OutboxEvent event : batch) {
+                acked.add(event.getId());
+            }
+        } catch (IOException e) {
+            log.warn("Could not write outbox batch to {}: {}", path, e.getMessage());
+        }
+        return acked;
+    }
+
+    private ObjectNode toJson(OutboxEvent event) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", event.getId());
+        node.put("aggregateType", event.getAggregateType());
+        node.put("aggregateId", event.getAggregateId());
+        node.put("eventType", event.getEventType().name());
+        node.put("created", event.getCreated().toString());
+        node.set("payload", objectMapper.readTree(event.getPayload()));
+        return node;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.outbox.sink;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.service.OutboxProperties;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the last {@code memory-capacity} published events in memory, for tests.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.outbox", name = "sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxEvent> published = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(OutboxProperties properties) {
+        this.capacity = properties.getMemoryCapacity();
+    }
+
+    @Override
+    public synchronized Set<Long> publish(List<OutboxEvent> batch) {
+        Set<Long> acked = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            if (published.size() == capacity) {
+                published.removeFirst();
+            }
+            published.addLast(event);
+            acked.add(event.getId());
+        }
+        return acked;
+    }
+
+    public synchronized List<OutboxEvent> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
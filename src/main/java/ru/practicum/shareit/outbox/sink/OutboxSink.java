@@ -0,0 +1,15 @@
+package ru.practicum.shareit.outbox.sink;
+
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+import java.util.Set;
+
+public interface OutboxSink {
+
+    /**
+     * Publishes the batch in the given order and returns ids of the events the sink has acknowledged.
+     * Events that are not acknowledged stay in the outbox and are delivered again later.
+     */
+    Set<Long> publish(List<OutboxEvent> batch);
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fields shared by the service and repository call events. The events are disabled unless a recording enables
+ * them explicitly, so the stock JFR settings never pay for them.
+ */
+@Enabled(false)
+@StackTrace(false)
+@Category({"ShareIt", "Calls"})
+abstract class CallEvent extends jdk.jfr.Event {
+
+    @Label("Component")
+    String component;
+
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("User Bucket")
+    int userBucket;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code POST /actuator/jfr} starts a recording, {@code DELETE /actuator/jfr} stops it early,
+ * {@code GET /actuator/jfr} lists recordings and {@code GET /actuator/jfr/{id}} downloads one as a JFR file.
+ * <p>
+ * Recordings reveal a lot about the running process, so the endpoint only exists with
+ * {@code shareit.profiling.endpoint-enabled=true} and must also be added to the exposed endpoints, preferably
+ * on a separate {@code management.server.port} that is bound to localhost.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.profiling", name = {"enabled", "endpoint-enabled"}, havingValue = "true")
+public class FlightRecordingEndpoint {
+
+    private final RecordingManager recordingManager;
+
+    @ReadOperation
+    public List<RecordingInfo> recordings() {
+        return recordingManager.findAll().stream()
+                .map(RecordingInfo::of)
+                .toList();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        return recordingManager.open(id)
+                .map(stream -> new WebEndpointResponse<Resource>(new InputStreamResource(stream)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<RecordingInfo> start(@Nullable Duration duration, @Nullable String settings) {
+        try {
+            return new WebEndpointResponse<>(RecordingInfo.of(recordingManager.start(duration, settings)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<RecordingInfo> stop() {
+        return recordingManager.stop()
+                .map(recording -> new WebEndpointResponse<>(RecordingInfo.of(recording)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.profiling;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.lang.reflect.Method;
+
+@Configuration
+@ConditionalOnProperty(prefix = "shareit.profiling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor profilingAdvisor(Environment environment) {
+        int userBuckets = Binder.get(environment)
+                .bind("shareit.profiling", ProfilingProperties.class)
+                .map(ProfilingProperties::getUserBuckets)
+                .orElseGet(() -> new ProfilingProperties().getUserBuckets());
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() != Object.class && ProfilingInterceptor.isProfiled(targetClass);
+            }
+        }, new ProfilingInterceptor(userBuckets));
+        // Inside shard routing, outside transactions, so that events include the time spent committing.
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+}
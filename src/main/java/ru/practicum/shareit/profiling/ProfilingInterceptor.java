@@ -0,0 +1,130 @@
+package ru.practicum.shareit.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps service and repository calls in {@link ServiceCallEvent} and {@link RepositoryCallEvent}. While no
+ * recording has the events enabled, a call costs one {@code isEnabled} check; the endpoint, user bucket and row
+ * count are worked out only for events that will be committed.
+ */
+class ProfilingInterceptor implements MethodInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final List<Class<?>> SERVICES = List.of(ItemService.class, BookingService.class,
+            UserService.class);
+
+    private final int userBuckets;
+    private final Map<Class<?>, String> componentNames = new ConcurrentHashMap<>();
+
+    ProfilingInterceptor(int userBuckets) {
+        this.userBuckets = userBuckets;
+    }
+
+    static boolean isProfiled(Class<?> targetClass) {
+        return isRepository(targetClass)
+                || SERVICES.stream().anyMatch(service -> service.isAssignableFrom(targetClass));
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = AopUtils.getTargetClass(invocation.getThis());
+        CallEvent event = isRepository(targetClass) ? new RepositoryCallEvent() : new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        event.begin();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.component = componentNames.computeIfAbsent(targetClass, ProfilingInterceptor::componentName);
+                event.method = invocation.getMethod().getName();
+                describeRequest(event);
+                event.rows = rows(result);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    private void describeRequest(CallEvent event) {
+        event.userBucket = -1;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        event.endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        String userId = request.getHeader(USER_HEADER);
+        if (userId != null) {
+            try {
+                event.userBucket = (int) Math.floorMod(Long.parseLong(userId.trim()), (long) userBuckets);
+            } catch (NumberFormatException e) {
+                // Left at -1, the request is rejected by the controller anyway.
+            }
+        }
+    }
+
+    private static int rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer updated) {
+            return updated;
+        }
+        return 1;
+    }
+
+    private static boolean isRepository(Class<?> targetClass) {
+        return Repository.class.isAssignableFrom(targetClass);
+    }
+
+    private static String componentName(Class<?> targetClass) {
+        if (Proxy.isProxyClass(targetClass)) {
+            for (Class<?> type : targetClass.getInterfaces()) {
+                if (isRepository(type) && !type.getName().startsWith("org.springframework")) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(targetClass).getSimpleName();
+    }
+}
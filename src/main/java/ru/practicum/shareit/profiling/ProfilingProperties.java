@@ -0,0 +1,32 @@
+package ru.practicum.shareit.profiling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.profiling")
+public class ProfilingProperties {
+
+    private boolean enabled = true;
+
+    private boolean endpointEnabled = false;
+
+    private String settings = "default";
+
+    private Duration defaultDuration = Duration.ofMinutes(1);
+
+    private Duration maxDuration = Duration.ofMinutes(10);
+
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    private int maxRecordings = 3;
+
+    private Duration serviceThreshold = Duration.ZERO;
+
+    private Duration repositoryThreshold = Duration.ZERO;
+
+    private int userBuckets = 64;
+}
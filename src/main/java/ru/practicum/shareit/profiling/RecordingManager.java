@@ -0,0 +1,109 @@
+package ru.practicum.shareit.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs time-boxed flight recordings with the service and repository call events enabled, one at a time.
+ * <p>
+ * A recording stops by itself after its duration and stays available for download until {@code max-recordings}
+ * newer ones have been started. Whatever the settings, recordings never include the environment variables and
+ * system properties of the process, which hold credentials.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit.profiling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RecordingManager {
+    private static final List<String> SENSITIVE_EVENTS =
+            List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+    private final ProfilingProperties properties;
+    private final Deque<Recording> recordings = new ArrayDeque<>();
+
+    public synchronized Recording start(Duration duration, String settings) {
+        if (findRunning().isPresent()) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Duration length = duration == null ? properties.getDefaultDuration() : duration;
+        if (length.isNegative() || length.isZero() || length.compareTo(properties.getMaxDuration()) > 0) {
+            throw new IllegalArgumentException("Recording duration must be positive and at most "
+                    + properties.getMaxDuration());
+        }
+
+        Recording recording = new Recording(configuration(settings == null ? properties.getSettings() : settings));
+        recording.setName("shareit-" + recording.getId());
+        recording.enable(ServiceCallEvent.class).withThreshold(properties.getServiceThreshold());
+        recording.enable(RepositoryCallEvent.class).withThreshold(properties.getRepositoryThreshold());
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.setDuration(length);
+        recording.setMaxSize(properties.getMaxSize().toBytes());
+        recording.setMaxAge(length);
+        recording.setToDisk(true);
+        recording.start();
+        log.info("Started flight recording {} for {}", recording.getName(), length);
+
+        recordings.addLast(recording);
+        while (recordings.size() > properties.getMaxRecordings()) {
+            recordings.removeFirst().close();
+        }
+        return recording;
+    }
+
+    public synchronized Optional<Recording> stop() {
+        Optional<Recording> running = findRunning();
+        running.ifPresent(Recording::stop);
+        return running;
+    }
+
+    public synchronized List<Recording> findAll() {
+        return List.copyOf(recordings);
+    }
+
+    /**
+     * Opens the data recorded so far, or returns an empty optional if there is no such recording.
+     */
+    public synchronized Optional<InputStream> open(long id) throws IOException {
+        for (Recording recording : recordings) {
+            if (recording.getId() == id) {
+                return Optional.ofNullable(recording.getStream(null, null));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        recordings.forEach(Recording::close);
+        recordings.clear();
+    }
+
+    private Optional<Recording> findRunning() {
+        return recordings.stream()
+                .filter(recording -> recording.getState() == RecordingState.RUNNING)
+                .findFirst();
+    }
+
+    private static Configuration configuration(String settings) {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown recording settings: " + settings);
+        }
+    }
+}
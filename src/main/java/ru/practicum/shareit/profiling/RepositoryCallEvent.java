@@ -0,0 +1,11 @@
+package ru.practicum.shareit.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.practicum.shareit.RepositoryCall")
+@Label("Repository Call")
+@Description("A call of a Spring Data repository method")
+public class RepositoryCallEvent extends CallEvent {
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.practicum.shareit.ServiceCall")
+@Label("Service Call")
+@Description("A call of an item, booking or user service method")
+public class ServiceCallEvent extends CallEvent {
+}
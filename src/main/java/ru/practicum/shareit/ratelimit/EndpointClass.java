@@ -0,0 +1,21 @@
+package ru.practicum.shareit.ratelimit;
+
+public enum EndpointClass {
+    SEARCH,
+    BOOKING_LISTS,
+    READ,
+    WRITE;
+
+    public static EndpointClass of(String method, String path) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return WRITE;
+        }
+        if (path.startsWith("/items/search")) {
+            return SEARCH;
+        }
+        if (path.equals("/bookings") || path.startsWith("/bookings/owner")) {
+            return BOOKING_LISTS;
+        }
+        return READ;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process rate limiter based on the generic cell rate algorithm.
+ * <p>
+ * Each client and endpoint class owns one bucket holding its theoretical arrival time in an {@link AtomicLong}.
+ * A request is admitted while that time is no further ahead of now than the burst allows, and the bucket is
+ * advanced with a single compare-and-set, so concurrent requests of different clients never contend.
+ * Buckets are kept in a separate map per endpoint class and are dropped once they have been idle long enough
+ * to be full again.
+ */
+@Component
+public class LocalRateLimiter implements RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final Map<EndpointClass, Map<String, AtomicLong>> buckets = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> allowedCounters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejectedCounters = new EnumMap<>(EndpointClass.class);
+
+    public LocalRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            Map<String, AtomicLong> endpointBuckets = new ConcurrentHashMap<>();
+            String tag = endpoint.name().toLowerCase();
+            buckets.put(endpoint, endpointBuckets);
+            allowedCounters.put(endpoint, meterRegistry.counter("shareit.ratelimit.requests",
+                    "endpoint", tag, "outcome", "allowed"));
+            rejectedCounters.put(endpoint, meterRegistry.counter("shareit.ratelimit.requests",
+                    "endpoint", tag, "outcome", "rejected"));
+            meterRegistry.gauge("shareit.ratelimit.buckets",
+                    Tags.of("endpoint", tag), endpointBuckets, Map::size);
+        }
+    }
+
+    @Override
+    public long tryAcquire(EndpointClass endpoint, String clientKey) {
+        RateLimitProperties.Quota quota = properties.getQuota(endpoint);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / quota.getRatePerSecond());
+        long tolerance = interval * Math.max(quota.getBurst() - 1, 0);
+        AtomicLong bucket = buckets.get(endpoint).computeIfAbsent(clientKey, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+
+        while (true) {
+            long arrival = bucket.get();
+            long base = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+            long wait = base - tolerance - now;
+            if (wait > 0) {
+                rejectedCounters.get(endpoint).increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, base + interval)) {
+                allowedCounters.get(endpoint).increment();
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.rate-limit.idle-eviction:PT5M}")
+    public void evictIdleBuckets() {
+        long threshold = System.nanoTime() - properties.getIdleEviction().toNanos();
+        for (Map<String, AtomicLong> endpointBuckets : buckets.values()) {
+            endpointBuckets.values().removeIf(bucket -> bucket.get() - threshold < 0);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private Duration idleEviction = Duration.ofMinutes(5);
+
+    private Map<EndpointClass, Quota> quotas = new EnumMap<>(Map.of(
+            EndpointClass.SEARCH, new Quota(5, 20),
+            EndpointClass.BOOKING_LISTS, new Quota(5, 20),
+            EndpointClass.READ, new Quota(50, 100),
+            EndpointClass.WRITE, new Quota(10, 20)));
+
+    public Quota getQuota(EndpointClass endpoint) {
+        return quotas.getOrDefault(endpoint, quotas.get(EndpointClass.READ));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Quota {
+
+        private double ratePerSecond;
+
+        private int burst;
+    }
+}
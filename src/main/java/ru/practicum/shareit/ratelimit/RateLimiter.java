@@ -0,0 +1,11 @@
+package ru.practicum.shareit.ratelimit;
+
+public interface RateLimiter {
+
+    /**
+     * Takes one token for the client and endpoint class.
+     *
+     * @return {@code 0} if the request is allowed, otherwise the number of nanoseconds to wait before retrying
+     */
+    long tryAcquire(EndpointClass endpoint, String clientKey);
+}
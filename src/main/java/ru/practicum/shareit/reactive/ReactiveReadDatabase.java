@@ -0,0 +1,58 @@
+package ru.practicum.shareit.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking connection pool used by the streaming read endpoints.
+ * <p>
+ * The pool is deliberately not exposed as a {@code ConnectionFactory} bean: schema initialization, JPA and
+ * every write keep going through the JDBC {@code DataSource}, and this pool only serves read-only queries
+ * through {@link #getClient()}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "shareit.reactive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveReadDatabase implements DisposableBean {
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+    private final int fetchSize;
+
+    public ReactiveReadDatabase(ReactiveReadProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("shareit-reactive-read")
+                .initialSize(0)
+                .maxSize(properties.getMaxPoolSize())
+                .maxAcquireTime(properties.getMaxAcquireTime())
+                .build());
+        this.client = DatabaseClient.create(pool);
+        this.fetchSize = properties.getFetchSize();
+    }
+
+    public DatabaseClient getClient() {
+        return client;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+}
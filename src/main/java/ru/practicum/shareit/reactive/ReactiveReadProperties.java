@@ -0,0 +1,25 @@
+package ru.practicum.shareit.reactive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.reactive")
+public class ReactiveReadProperties {
+
+    private boolean enabled = true;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maxPoolSize = 20;
+
+    private Duration maxAcquireTime = Duration.ofSeconds(5);
+
+    private int fetchSize = 256;
+}
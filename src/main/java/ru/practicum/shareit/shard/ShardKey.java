@@ -0,0 +1,17 @@
+package ru.practicum.shareit.shard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the service method parameter that selects the shard the call runs on: an owner id, or the id of an
+ * item, booking or comment. With {@link #property()} the key is read from that property of the argument.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    String property() default "";
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.shard;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs service methods with a {@link ShardKey} parameter on the shard of that key. It is ordered before the
+ * transaction interceptor, so the transaction and every statement of the call go to the selected shard.
+ */
+class ShardKeyInterceptor implements MethodInterceptor {
+
+    private final int shardCount;
+    private final Map<Method, Optional<KeyParameter>> keyParameters = new ConcurrentHashMap<>();
+
+    ShardKeyInterceptor(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    static boolean hasShardKey(Method method) {
+        return findKeyParameter(method).isPresent();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(),
+                AopUtils.getTargetClass(invocation.getThis()));
+        Optional<KeyParameter> parameter = keyParameters.computeIfAbsent(method,
+                ShardKeyInterceptor::findKeyParameter);
+        Long key = parameter.map(p -> p.read(invocation.getArguments())).orElse(null);
+        if (key == null) {
+            return invocation.proceed();
+        }
+
+        Integer previous = ShardContext.enter(ShardRouter.shardOf(key, shardCount));
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private static Optional<KeyParameter> findKeyParameter(Method method) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey shardKey) {
+                    return Optional.of(new KeyParameter(i, shardKey.property()));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private record KeyParameter(int index, String property) {
+        Long read(Object[] arguments) {
+            Object argument = arguments[index];
+            if (argument != null && !property.isEmpty()) {
+                argument = PropertyAccessorFactory.forBeanPropertyAccess(argument).getPropertyValue(property);
+            }
+            return argument instanceof Number number ? number.longValue() : null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.shard;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Maps keys to shards and runs work across them.
+ * <p>
+ * Identity columns of sharded tables are interleaved, so the id of an item, booking or comment created on shard
+ * {@code i} is congruent to {@code i + 1} modulo the shard count and the shard can be derived from the id alone.
+ * Items are created on the shard of their owner, and bookings and comments on the shard of their item, so all
+ * data of one owner lives together. Users are written to the home shard and copied to the others by
+ * {@code UserReplicator}. With sharding disabled there is a single shard and every operation runs inline.
+ */
+@Component
+public class ShardRouter {
+
+    private final int shardCount;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ExecutorService executor;
+
+    public ShardRouter(ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.executor = shardCount > 1 ? newExecutor(properties.getFanOutThreads()) : null;
+    }
+
+    public static int shardOf(long key, int shardCount) {
+        return (int) Math.floorMod(key - 1, (long) shardCount);
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(Long key) {
+        return shardOf(key, shardCount);
+    }
+
+    /**
+     * Runs a read on every shard in parallel, each in its own read-only transaction, and concatenates the results
+     * in shard order.
+     */
+    public <T> List<T> gather(Supplier<List<T>> query) {
+        if (shardCount == 1) {
+            return query.get();
+        }
+        List<CompletableFuture<List<T>>> parts = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            parts.add(CompletableFuture.supplyAsync(() -> ShardContext.call(target,
+                    () -> readOnlyTemplate.execute(status -> query.get())), executor));
+        }
+
+        List<T> result = new ArrayList<>();
+        for (CompletableFuture<List<T>> part : parts) {
+            try {
+                result.addAll(part.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the action once for every shard on the calling thread.
+     */
+    public void forEachShard(Runnable action) {
+        if (shardCount == 1) {
+            action.run();
+            return;
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            ShardContext.run(shard, action);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
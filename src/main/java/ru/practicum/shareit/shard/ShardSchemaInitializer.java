@@ -0,0 +1,63 @@
+package ru.practicum.shareit.shard;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Applies the SQL init scripts to every shard and interleaves the identity columns of sharded tables, so that
+ * ids generated on shard {@code i} of {@code n} are {@code i + 1}, {@code i + 1 + n}, and so on. Replaces
+ * the default initializer, which would only see the home shard through the routing data source.
+ */
+public class ShardSchemaInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+    private static final List<String> IDENTITY_TABLES = List.of("items", "comments", "outbox");
+
+    private final ShardRoutingDataSource shards;
+    private final SqlInitializationProperties properties;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource shards, SqlInitializationProperties properties) {
+        super(shards.getShard(0), properties);
+        this.shards = shards;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        boolean initialized = false;
+        int shardCount = shards.getShardCount();
+        for (int shard = 0; shard < shardCount; shard++) {
+            DataSource dataSource = shards.getShard(shard);
+            initialized |= new SqlDataSourceScriptDatabaseInitializer(dataSource, properties).initializeDatabase();
+            interleaveIdentities(new JdbcTemplate(dataSource), shard, shardCount);
+        }
+        return initialized;
+    }
+
+    private void interleaveIdentities(JdbcTemplate jdbcTemplate, int shard, int shardCount) {
+        for (String table : IDENTITY_TABLES) {
+            long next = nextId(jdbcTemplate, table, shard, shardCount);
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + shardCount
+                    + " RESTART WITH " + next);
+        }
+        long next = nextId(jdbcTemplate, "bookings", shard, shardCount);
+        if ("postgresql".equals(properties.getPlatform())) {
+            jdbcTemplate.execute("ALTER SEQUENCE bookings_id_seq INCREMENT BY " + shardCount + " RESTART WITH " + next);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE bookings ALTER COLUMN id SET INCREMENT BY " + shardCount
+                    + " RESTART WITH " + next);
+        }
+    }
+
+    private static long nextId(JdbcTemplate jdbcTemplate, String table, int shard, int shardCount) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long next = max + 1;
+        while (ShardRouter.shardOf(next, shardCount) != shard) {
+            next++;
+        }
+        return next;
+    }
+}
@@ -3,6 +3,9 @@ package ru.practicum.shareit.user.mapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class UserMapper {
 
     public static UserDto mapUserToUserDto(User user) {
@@ -13,9 +16,16 @@ public class UserMapper {
                 .build();
     }
 
+    public static List<UserDto> mapUserToUserDto(List<User> users) {
+        List<UserDto> dtos = new ArrayList<>(users.size());
+        for (int i = 0, size = users.size(); i < size; i++) {
+            dtos.add(mapUserToUserDto(users.get(i)));
+        }
+        return dtos;
+    }
+
     public static User mapUserDtoToUser(UserDto userDto) {
         return User.builder()
-                .id(userDto.getId())
                 .name(userDto.getName())
                 .email(userDto.getEmail())
                 .build();
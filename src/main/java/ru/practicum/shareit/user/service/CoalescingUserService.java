@@ -0,0 +1,51 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.common.SingleFlight;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+
+@Primary
+@Service
+public class CoalescingUserService implements UserService {
+    private final UserServiceImpl delegate;
+    private final SingleFlight<Long, UserDto> findByIdCalls;
+
+    public CoalescingUserService(UserServiceImpl delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.findByIdCalls = new SingleFlight<>("user.findById", meterRegistry);
+    }
+
+    @Override
+    public UserDto create(UserDto userDto) {
+        return delegate.create(userDto);
+    }
+
+    @Override
+    public UserDto update(UserDto userDto, Long userId) {
+        return delegate.update(userDto, userId);
+    }
+
+    @Override
+    public void delete(Long id) {
+        delegate.delete(id);
+    }
+
+    @Override
+    public List<UserDto> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public UserDto findById(Long id) {
+        return findByIdCalls.execute(id, () -> delegate.findById(id));
+    }
+
+    @Override
+    public String getUserTag(Long id) {
+        return delegate.getUserTag(id);
+    }
+}
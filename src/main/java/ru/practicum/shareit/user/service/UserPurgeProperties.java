@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.user.purge")
+public class UserPurgeProperties {
+
+    private boolean enabled = true;
+
+    private int batchSize = 500;
+
+    private int maxBatchesPerRun = 100;
+
+    private Duration batchPause = Duration.ofMillis(100);
+}
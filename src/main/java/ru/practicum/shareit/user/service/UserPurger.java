@@ -0,0 +1,193 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheInvalidationBus;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.shard.ShardRouter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background purger that removes the data of users marked deleted by {@link UserServiceImpl#delete}.
+ * <p>
+ * Instead of one {@code DELETE} cascading through every booking, comment, item and request of the user inside
+ * the request, dependent rows are deleted leaves first in batches of {@code batch-size}. Each batch commits on
+ * its own and is followed by a {@code batch-pause}, so concurrent booking writes are never blocked for long.
+ * Archived bookings, which reference items and users without foreign keys, go with the live ones. Items go
+ * after their bookings and comments, so deleting an item only cascades to its daily stats. A run stops after
+ * {@code max-batches-per-run} batches that deleted rows per shard and the next run carries on; the user row goes
+ * last.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "shareit.user.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class UserPurger {
+    private static final int MAX_USERS_PER_RUN = 100;
+    private static final String USER_REQUESTS = "SELECT id FROM requests WHERE owner_id = ?";
+    private static final String USER_ITEMS = "SELECT id FROM items WHERE owner_id = ? OR request_id IN ("
+            + USER_REQUESTS + ")";
+    private static final List<Step> STEPS = List.of(
+            new Step("bookings", "user_id = ? OR item_id IN (" + USER_ITEMS + ")", "item_id",
+                    List.of(CacheRegion.ITEM_CALENDAR)),
+            new Step("bookings_archive", "user_id = ? OR item_id IN (" + USER_ITEMS + ")", null, List.of()),
+            new Step("comments", "owner_id = ? OR item_id IN (" + USER_ITEMS + ")", null, List.of()),
+            new Step("items", "owner_id = ? OR request_id IN (" + USER_REQUESTS + ")", "id",
+                    List.of(CacheRegion.ITEM, CacheRegion.ITEM_CALENDAR)),
+            new Step("requests", "owner_id = ?", null, List.of()));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserPurgeProperties properties;
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final Counter purgedUsers;
+    private final AtomicLong pendingUsers = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Map<Long, Long> deletedRows = new ConcurrentHashMap<>();
+
+    public UserPurger(JdbcTemplate jdbcTemplate,
+                      UserPurgeProperties properties,
+                      ShardRouter shardRouter,
+                      CacheInvalidationBus cacheInvalidationBus,
+                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.purgedUsers = meterRegistry.counter("shareit.user.purge.users");
+        meterRegistry.gauge("shareit.user.purge.pending", pendingUsers);
+        meterRegistry.gauge("shareit.user.purge.lag.seconds", lagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.purge.interval:PT30S}")
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> pending = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        AtomicLong lag = new AtomicLong();
+
+        shardRouter.forEachShard(() -> {
+            int[] budget = {properties.getMaxBatchesPerRun()};
+            for (DeletedUser user : findDeletedUsers()) {
+                lag.accumulateAndGet(Duration.between(user.deletedAt(), now).toSeconds(), Math::max);
+                if (budget[0] == 0 || !purge(user.id(), budget)) {
+                    pending.add(user.id());
+                }
+            }
+        });
+        pendingUsers.set(pending.size());
+        lagSeconds.set(pending.isEmpty() ? 0 : lag.get());
+    }
+
+    private List<DeletedUser> findDeletedUsers() {
+        return jdbcTemplate.query("SELECT id, deleted_at FROM users WHERE deleted_at IS NOT NULL " +
+                        "ORDER BY deleted_at LIMIT ?",
+                (rs, rowNum) -> new DeletedUser(rs.getLong("id"), rs.getTimestamp("deleted_at").toLocalDateTime()),
+                MAX_USERS_PER_RUN);
+    }
+
+    /**
+     * Deletes the user's rows on the current shard within the remaining batch budget and returns whether the
+     * user is gone.
+     */
+    private boolean purge(long userId, int[] budget) {
+        long before = deletedRows.getOrDefault(userId, 0L);
+        for (Step step : STEPS) {
+            int deleted;
+            do {
+                if (budget[0] == 0) {
+                    reportProgress(userId, before);
+                    return false;
+                }
+                deleted = deleteBatch(step, userId);
+                if (deleted > 0) {
+                    // Only batches that delete rows count, so the steps already emptied never use up a run.
+                    budget[0]--;
+                    deletedRows.merge(userId, (long) deleted, Long::sum);
+                    if (!pause()) {
+                        return false;
+                    }
+                }
+            } while (deleted == properties.getBatchSize());
+        }
+
+        if (jdbcTemplate.update("DELETE FROM users WHERE id = ? AND deleted_at IS NOT NULL", userId) > 0) {
+            purgedUsers.increment();
+        }
+        cacheInvalidationBus.invalidateEverywhere(CacheRegion.USER_RENTALS, Set.of(userId));
+        log.info("Purged deleted user {}: {} dependent rows removed", userId, deletedRows.remove(userId));
+        return true;
+    }
+
+    private int deleteBatch(Step step, long userId) {
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < step.parameterCount(); i++) {
+            args.add(userId);
+        }
+        args.add(properties.getBatchSize());
+        String keyColumn = step.invalidatedColumn() == null ? "id" : step.invalidatedColumn();
+        List<long[]> rows = jdbcTemplate.query("SELECT id, " + keyColumn + " FROM " + step.table()
+                        + " WHERE " + step.condition() + " LIMIT ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)}, args.toArray());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        Set<Long> keys = new HashSet<>();
+        for (long[] row : rows) {
+            ids.add(row[0]);
+            keys.add(row[1]);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        int deleted = jdbcTemplate.update("DELETE FROM " + step.table() + " WHERE id IN (" + placeholders + ")",
+                ids.toArray());
+        meterRegistry.counter("shareit.user.purge.rows", "table", step.table()).increment(deleted);
+        for (CacheRegion region : step.invalidatedRegions()) {
+            cacheInvalidationBus.invalidateEverywhere(region, keys);
+        }
+        return rows.size();
+    }
+
+    private void reportProgress(long userId, long before) {
+        long total = deletedRows.getOrDefault(userId, 0L);
+        log.info("Purging deleted user {}: {} dependent rows removed this run, {} so far", userId,
+                total - before, total);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Step(String table, String condition, String invalidatedColumn,
+                        List<CacheRegion> invalidatedRegions) {
+
+        int parameterCount() {
+            return (int) condition.chars().filter(c -> c == '?').count();
+        }
+    }
+
+    private record DeletedUser(long id, LocalDateTime deletedAt) {
+    }
+}
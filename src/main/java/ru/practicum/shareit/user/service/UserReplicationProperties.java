@@ -0,0 +1,11 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.user.replication")
+public class UserReplicationProperties {
+
+    private int batchSize = 100;
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.shard.ShardContext;
+import ru.practicum.shareit.shard.ShardRouter;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Replicates users from the home shard to every other shard.
+ * <p>
+ * A user write records one {@code user_replication} row per target shard in the transaction that writes the
+ * user on the home shard, so the intent commits or rolls back together with the write. After commit the intents
+ * are applied right away, and a scheduled run retries whatever is left. Applying an intent copies the user's
+ * current state from the home shard onto the replica unless the replica already has that version or a newer
+ * one, so intents can be applied any number of times and in any order. Intents of a shard are applied in id
+ * order and a failed one holds back the later ones of its shard until the next run.
+ */
+@Slf4j
+@Component
+public class UserReplicator {
+    private static final int HOME_SHARD = 0;
+    private static final RowMapper<Intent> INTENT = (rs, rowNum) ->
+            new Intent(rs.getLong("id"), rs.getLong("user_id"), rs.getInt("shard"));
+
+    private final UserStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final UserReplicationProperties properties;
+    private final TransactionTemplate newTransactionTemplate;
+    private final Counter failures;
+    private final AtomicLong pending = new AtomicLong();
+
+    public UserReplicator(UserStorage userStorage,
+                          JdbcTemplate jdbcTemplate,
+                          ShardRouter shardRouter,
+                          UserReplicationProperties properties,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.userStorage = userStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.properties = properties;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.failures = meterRegistry.counter("shareit.user.replication.failures");
+        meterRegistry.gauge("shareit.user.replication.pending", pending);
+    }
+
+    /**
+     * Records that the user must be replicated. Must run in the transaction that writes the user on the home
+     * shard.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long userId) {
+        if (shardRouter.shardCount() == 1) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int shard = 1; shard < shardRouter.shardCount(); shard++) {
+            jdbcTemplate.update("INSERT INTO user_replication (user_id, shard, created) VALUES (?, ?, ?)",
+                    userId, shard, now);
+        }
+        afterCommit(() -> {
+            try {
+                apply(findIntents("WHERE user_id = ? ORDER BY id", userId));
+            } catch (RuntimeException e) {
+                log.warn("Could not replicate user {} after commit, will retry: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.replication.interval:PT5S}")
+    public void run() {
+        if (shardRouter.shardCount() == 1) {
+            return;
+        }
+        apply(findIntents("ORDER BY id LIMIT ?", properties.getBatchSize()));
+        pending.set(onHomeShard(() -> jdbcTemplate.queryForObject("SELECT count(*) FROM user_replication",
+                Long.class)));
+    }
+
+    private List<Intent> findIntents(String clause, Object parameter) {
+        return onHomeShard(() -> jdbcTemplate.query("SELECT id, user_id, shard FROM user_replication " + clause,
+                INTENT, parameter));
+    }
+
+    private void apply(List<Intent> intents) {
+        Set<Integer> blockedShards = new HashSet<>();
+        for (Intent intent : intents) {
+            if (blockedShards.contains(intent.shard())) {
+                continue;
+            }
+            try {
+                applyIntent(intent);
+            } catch (RuntimeException e) {
+                blockedShards.add(intent.shard());
+                failures.increment();
+                onHomeShard(() -> jdbcTemplate.update(
+                        "UPDATE user_replication SET attempts = attempts + 1 WHERE id = ?", intent.id()));
+                log.warn("Could not replicate user {} to shard {}, will retry: {}", intent.userId(), intent.shard(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void applyIntent(Intent intent) {
+        Optional<User> home = onHomeShard(() -> userStorage.findIncludingDeletedById(intent.userId()));
+        // A user purged from the home shard is purged from every replica by the purger, so there is nothing to copy.
+        home.ifPresent(user -> ShardContext.run(intent.shard(), () -> newTransactionTemplate.executeWithoutResult(
+                status -> {
+                    if (userStorage.updateReplica(user.getId(), user.getEmail(), user.getName(), user.getVersion(),
+                            user.getDeletedAt()) == 0) {
+                        userStorage.insertReplica(user.getId(), user.getEmail(), user.getName(), user.getVersion(),
+                                user.getDeletedAt());
+                    }
+                })));
+        onHomeShard(() -> jdbcTemplate.update("DELETE FROM user_replication WHERE id = ?", intent.id()));
+    }
+
+    /**
+     * Runs the action on the home shard in a new transaction, which also keeps it off the connection of a
+     * transaction that has just committed.
+     */
+    private <T> T onHomeShard(Supplier<T> action) {
+        return ShardContext.call(HOME_SHARD, () -> newTransactionTemplate.execute(status -> action.get()));
+    }
+
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Intent(long id, long userId, int shard) {
+    }
+}
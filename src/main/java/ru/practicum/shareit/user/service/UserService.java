@@ -14,4 +14,6 @@ public interface UserService {
     List<UserDto> findAll();
 
     UserDto findById(Long id);
+
+    String getUserTag(Long id);
 }
@@ -3,18 +3,24 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.CacheInvalidationBus;
+import ru.practicum.shareit.cache.CacheRegion;
+import ru.practicum.shareit.common.EntityTags;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxWriter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +30,9 @@ public class UserServiceImpl implements UserService {
     private static final Pattern EMAIL_PATTERN =
             Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
     private final UserStorage userStorage;
+    private final OutboxWriter outboxWriter;
+    private final UserReplicator userReplicator;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Override
     @Transactional
@@ -31,8 +40,12 @@ public class UserServiceImpl implements UserService {
         validateEmail(userDto.getEmail());
         checkEmailConflict(userDto.getEmail(), userDto.getId());
 
-        User createdUser = userStorage.save(UserMapper.mapUserDtoToUser(userDto));
-        return UserMapper.mapUserToUserDto(createdUser);
+        User createdUser = userStorage.saveAndFlush(UserMapper.mapUserDtoToUser(userDto));
+        userReplicator.enqueue(createdUser.getId());
+
+        UserDto created = UserMapper.mapUserToUserDto(createdUser);
+        outboxWriter.append(OutboxEventType.USER_CREATED, created.getId(), created);
+        return created;
     }
 
     @Override
@@ -54,24 +67,31 @@ public class UserServiceImpl implements UserService {
             user.setEmail(userDto.getEmail());
         }
 
-        userStorage.save(user);
-        return UserMapper.mapUserToUserDto(user);
+        userStorage.saveAndFlush(user);
+        userReplicator.enqueue(userId);
+        cacheInvalidationBus.publish(CacheRegion.USER, userId);
+
+        UserDto updated = UserMapper.mapUserToUserDto(user);
+        outboxWriter.append(OutboxEventType.USER_UPDATED, userId, updated);
+        return updated;
     }
 
     @Override
     @Transactional
     public void delete(Long userId) {
-        getUserById(userId); // Проверка на наличие
-        User user = userStorage.getReferenceById(userId);
-        userStorage.delete(user);
+        LocalDateTime deletedAt = LocalDateTime.now();
+        if (userStorage.markDeleted(userId, deletedAt) == 0) {
+            throw new NotFoundException("User was not found");
+        }
+        userReplicator.enqueue(userId);
+        cacheInvalidationBus.publish(CacheRegion.USER, userId);
+        outboxWriter.append(OutboxEventType.USER_DELETED, userId, Map.of("id", userId));
     }
 
     @Override
     @Transactional
     public List<UserDto> findAll() {
-        return userStorage.findAll().stream()
-                .map(UserMapper::mapUserToUserDto)
-                .collect(Collectors.toList());
+        return UserMapper.mapUserToUserDto(userStorage.findAll());
     }
 
     @Override
@@ -81,6 +101,13 @@ public class UserServiceImpl implements UserService {
         return UserMapper.mapUserToUserDto(user);
     }
 
+    @Override
+    public String getUserTag(Long userId) {
+        Long version = userStorage.findVersionById(userId)
+                .orElseThrow(() -> new NotFoundException("User was not found"));
+        return EntityTags.of("user", userId, version);
+    }
+
     private void validateEmail(String email) {
         if (email == null || email.isBlank()) {
             throw new ValidationException("Email cannot be null or empty");
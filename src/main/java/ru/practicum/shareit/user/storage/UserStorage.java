@@ -1,10 +1,67 @@
 package ru.practicum.shareit.user.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Users marked deleted are hidden from every read here while {@code UserPurger} removes their data.
+ */
 public interface UserStorage extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+    @Override
+    @Query("select u from User as u where u.id = :id and u.deletedAt is null")
+    Optional<User> findById(@Param("id") Long id);
+
+    @Override
+    @Query("select u from User as u where u.deletedAt is null")
+    List<User> findAll();
+
+    @Override
+    @Query("select count(u) > 0 from User as u where u.id = :id and u.deletedAt is null")
+    boolean existsById(@Param("id") Long id);
+
+    @Query("select u from User as u where u.email = :email and u.deletedAt is null")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    @Query("select u.version from User as u where u.id = :userId and u.deletedAt is null")
+    Optional<Long> findVersionById(@Param("userId") Long userId);
+
+    /**
+     * Marks the user deleted and releases their email for new accounts.
+     */
+    @Modifying
+    @Query(value = "update users set deleted_at = :deletedAt, email = concat('deleted-', id, '@shareit.invalid'), " +
+            "version = version + 1 where id = :id and deleted_at is null", nativeQuery = true)
+    int markDeleted(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Query(value = "select * from users where id = :id", nativeQuery = true)
+    Optional<User> findIncludingDeletedById(@Param("id") Long id);
+
+    /**
+     * Copies the user's state onto a replica unless the replica already has it or a newer one.
+     */
+    @Modifying
+    @Query(value = "update users set email = :email, name = :name, version = :version, deleted_at = :deletedAt " +
+            "where id = :id and version < :version", nativeQuery = true)
+    int updateReplica(@Param("id") Long id,
+                      @Param("email") String email,
+                      @Param("name") String name,
+                      @Param("version") Long version,
+                      @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying
+    @Query(value = "insert into users (id, email, name, version, deleted_at) " +
+            "select cast(:id as int), cast(:email as varchar), cast(:name as varchar), cast(:version as bigint), " +
+            "cast(:deletedAt as timestamp) where not exists (select 1 from users where id = :id)", nativeQuery = true)
+    int insertReplica(@Param("id") Long id,
+                      @Param("email") String email,
+                      @Param("name") String name,
+                      @Param("version") Long version,
+                      @Param("deletedAt") LocalDateTime deletedAt);
 }
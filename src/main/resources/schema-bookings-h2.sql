@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS bookings (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status VARCHAR NOT NULL,
+    item_id INT NOT NULL,
+    user_id INT NOT NULL,
+    start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS bookings_user_start_idx ON bookings (user_id, start_time DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_time DESC);
+CREATE INDEX IF NOT EXISTS bookings_user_item_end_idx ON bookings (user_id, item_id, end_time);
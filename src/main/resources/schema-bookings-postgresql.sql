@@ -0,0 +1,22 @@
+DROP SEQUENCE IF EXISTS bookings_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_id_seq AS INT;
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id INT NOT NULL DEFAULT nextval('bookings_id_seq'),
+    status VARCHAR NOT NULL,
+    item_id INT NOT NULL,
+    user_id INT NOT NULL,
+    start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, start_time),
+    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) PARTITION BY RANGE (start_time);
+
+CREATE TABLE IF NOT EXISTS bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX IF NOT EXISTS bookings_user_start_idx ON bookings (user_id, start_time DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_time DESC);
+CREATE INDEX IF NOT EXISTS bookings_user_item_end_idx ON bookings (user_id, item_id, end_time);
@@ -3,11 +3,19 @@ DROP TABLE IF EXISTS requests CASCADE;
 DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
+DROP TABLE IF EXISTS bookings_archive CASCADE;
+DROP TABLE IF EXISTS outbox CASCADE;
+DROP TABLE IF EXISTS user_replication CASCADE;
+DROP TABLE IF EXISTS item_daily_stats CASCADE;
+DROP TABLE IF EXISTS idempotency_keys CASCADE;
+DROP TABLE IF EXISTS item_popularity_landmark CASCADE;
 
 CREATE TABLE IF NOT EXISTS users (
     id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     email VARCHAR NOT NULL UNIQUE,
-    name VARCHAR NOT NULL
+    name VARCHAR NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    deleted_at TIMESTAMP WITHOUT TIME ZONE
 );
 
 CREATE TABLE IF NOT EXISTS requests (
@@ -25,27 +33,89 @@ CREATE TABLE IF NOT EXISTS items (
     name VARCHAR NOT NULL,
     description VARCHAR NOT NULL,
     available BOOLEAN,
+    version BIGINT NOT NULL DEFAULT 0,
+    popularity DOUBLE PRECISION NOT NULL DEFAULT 0,
     FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE,
     FOREIGN KEY (request_id) REFERENCES requests (id) ON DELETE CASCADE
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
-    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    status VARCHAR NOT NULL,
-    item_id INT NOT NULL,
-    user_id INT NOT NULL,
-    start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
-    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+CREATE TABLE IF NOT EXISTS item_popularity_landmark (
+    id INT PRIMARY KEY,
+    landmark TIMESTAMP WITHOUT TIME ZONE NOT NULL
 );
 
+INSERT INTO item_popularity_landmark (id, landmark) VALUES (1, TIMESTAMP '2024-01-01 00:00:00');
+
 CREATE TABLE IF NOT EXISTS comments (
     id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     owner_id INT NOT NULL,
     item_id INT NOT NULL,
     text VARCHAR NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE,
     FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS users_deleted_idx ON users (deleted_at);
+CREATE INDEX IF NOT EXISTS requests_owner_idx ON requests (owner_id);
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+CREATE INDEX IF NOT EXISTS items_popularity_idx ON items (popularity DESC, id);
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
+CREATE INDEX IF NOT EXISTS comments_owner_idx ON comments (owner_id);
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id INT PRIMARY KEY,
+    status VARCHAR NOT NULL,
+    item_id INT NOT NULL,
+    user_id INT NOT NULL,
+    start_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    archived_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS bookings_archive_user_start_idx ON bookings_archive (user_id, start_time DESC);
+CREATE INDEX IF NOT EXISTS bookings_archive_item_start_idx ON bookings_archive (item_id, start_time DESC);
+CREATE INDEX IF NOT EXISTS bookings_archive_user_item_end_idx ON bookings_archive (user_id, item_id, end_time);
+
+CREATE TABLE IF NOT EXISTS user_replication (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL,
+    shard INT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS user_replication_user_idx ON user_replication (user_id);
+
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR NOT NULL,
+    payload VARCHAR NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS item_daily_stats (
+    item_id INT NOT NULL,
+    stat_date DATE NOT NULL,
+    bookings INT NOT NULL DEFAULT 0,
+    booked_minutes BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (item_id, stat_date),
+    FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(300) PRIMARY KEY,
+    fingerprint VARCHAR NOT NULL,
+    status INT,
+    content_type VARCHAR,
+    location VARCHAR,
+    etag VARCHAR,
+    body BYTEA,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_idx ON idempotency_keys (created);
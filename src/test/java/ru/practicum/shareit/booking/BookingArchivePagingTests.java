@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that every page of a listing that merges live and archived bookings matches the same page of their
+ * union sorted in SQL, including bookings between the newest archived and the oldest live one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bookingarchive",
+        "shareit.reactive.url=r2dbc:h2:mem:///bookingarchive?options=DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "shareit.booking.lifecycle.enabled=false"
+})
+@ActiveProfiles("test")
+class BookingArchivePagingTests {
+    private static final List<BookingState> ARCHIVE_STATES =
+            List.of(BookingState.ALL, BookingState.PAST, BookingState.REJECTED);
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long bookerId;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM bookings_archive");
+        long suffix = System.nanoTime();
+        ownerId = userService.create(newUser("owner" + suffix + "@example.com")).getId();
+        bookerId = userService.create(newUser("booker" + suffix + "@example.com")).getId();
+        Long itemId = itemService.create(newItem(), ownerId).getId();
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        long archivedId = 1_000_000;
+        for (int days : new int[]{900, 800, 700, 600, 500, 450, 250, 250}) {
+            String status = days % 200 == 0 ? "REJECTED" : "APPROVED";
+            jdbcTemplate.update("INSERT INTO bookings_archive (id, status, item_id, user_id, start_time, end_time, "
+                    + "archived_at) VALUES (?, ?, ?, ?, ?, ?, ?)", archivedId++, status, itemId, bookerId,
+                    now.minusDays(days), now.minusDays(days - 5), now);
+        }
+        // Long bookings that started before the newest archived one and are still live.
+        insertLive(itemId, "APPROVED", now.minusDays(650), now.minusDays(10));
+        insertLive(itemId, "REJECTED", now.minusDays(300), now.minusDays(5));
+        insertLive(itemId, "APPROVED", now.minusDays(250), now.minusDays(2));
+        for (int days : new int[]{200, 100, 50, 10, 3, -1, -20}) {
+            insertLive(itemId, days == 100 ? "REJECTED" : "APPROVED", now.minusDays(days),
+                    now.minusDays(days - 1));
+        }
+    }
+
+    @Test
+    void bookerPagesMatchSortedUnion() {
+        for (BookingState state : ARCHIVE_STATES) {
+            List<Long> expected = expectedIds("user_id = ?", bookerId, state);
+            assertPages(expected, state, false);
+        }
+    }
+
+    @Test
+    void ownerPagesMatchSortedUnion() {
+        for (BookingState state : ARCHIVE_STATES) {
+            List<Long> expected = expectedIds("item_id IN (SELECT id FROM items WHERE owner_id = ?)", ownerId,
+                    state);
+            assertPages(expected, state, true);
+        }
+    }
+
+    private void assertPages(List<Long> expected, BookingState state, boolean owner) {
+        for (boolean fetchAssociations : new boolean[]{true, false}) {
+            assertEquals(expected, ids(find(owner, state, 0, null, fetchAssociations)), state + " unpaged");
+            for (int size = 1; size <= 4; size++) {
+                for (int from = 0; from <= expected.size() + 1; from++) {
+                    List<Long> page = expected.subList(Math.min(from, expected.size()),
+                            Math.min(from + size, expected.size()));
+                    assertEquals(page, ids(find(owner, state, from, size, fetchAssociations)),
+                            state + " from " + from + " size " + size);
+                }
+            }
+        }
+    }
+
+    private List<Booking> find(boolean owner, BookingState state, int from, Integer size, boolean fetchAssociations) {
+        return owner
+                ? bookingStorage.findAllByOwnerAndState(ownerId, state, now, from, size, fetchAssociations)
+                : bookingStorage.findAllByBookerAndState(bookerId, state, now, from, size, fetchAssociations);
+    }
+
+    private List<Long> expectedIds(String party, Long userId, BookingState state) {
+        String predicate = switch (state) {
+            case PAST -> " AND start_time < ? AND end_time < ?";
+            case REJECTED -> " AND status = 'REJECTED'";
+            default -> "";
+        };
+        String select = "SELECT id, start_time FROM %s WHERE " + party + predicate;
+        Object[] args = state == BookingState.PAST
+                ? new Object[]{userId, now, now, userId, now, now}
+                : new Object[]{userId, userId};
+        return jdbcTemplate.queryForList(select.formatted("bookings") + " UNION ALL "
+                + select.formatted("bookings_archive") + " ORDER BY start_time DESC, id DESC", args).stream()
+                .map(row -> ((Number) row.get("id")).longValue())
+                .toList();
+    }
+
+    private void insertLive(Long itemId, String status, LocalDateTime start, LocalDateTime end) {
+        jdbcTemplate.update("INSERT INTO bookings (status, item_id, user_id, start_time, end_time) "
+                + "VALUES (?, ?, ?, ?, ?)", status, itemId, bookerId, start, end);
+    }
+
+    private static List<Long> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).toList();
+    }
+
+    private static UserDto newUser(String email) {
+        return UserDto.builder().name("User").email(email).build();
+    }
+
+    private static ItemDto newItem() {
+        ItemDto item = new ItemDto();
+        item.setName("Archived saw");
+        item.setDescription("Item with live and archived bookings");
+        item.setAvailable(true);
+        return item;
+    }
+}
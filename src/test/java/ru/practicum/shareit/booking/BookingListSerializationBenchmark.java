@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.common.JacksonConfig;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization cost and size of a 10k-element {@code BookingDtoResponse} list in JSON, CBOR and Smile, with
+ * the mappers configured exactly as the HTTP converters are. Run with {@code mvn test -Pbenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingListSerializationBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingListSerializationBenchmark.class);
+
+    private static final int SIZE = 10_000;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<BookingDtoResponse> bookings;
+
+    @Setup
+    public void setUp() {
+        mapper = mapper(format);
+        bookings = bookings();
+    }
+
+    @Benchmark
+    public void serialize(Blackhole blackhole) throws IOException {
+        mapper.writeValue(new BlackholeOutputStream(blackhole), bookings);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        List<BookingDtoResponse> list = bookings();
+        for (String name : List.of("json", "cbor", "smile")) {
+            byte[] raw = mapper(name).writeValueAsBytes(list);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(raw);
+            }
+            log.info("{}: {} bytes, {} bytes gzipped", name, raw.length, compressed.size());
+        }
+
+        new Runner(new OptionsBuilder()
+                .include(getClass().getName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+
+    private static ObjectMapper mapper(String format) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().fieldFilterCustomizer().customize(builder);
+        JsonFactory factory = switch (format) {
+            case "cbor" -> JacksonConfig.cborFactory();
+            case "smile" -> JacksonConfig.smileFactory();
+            default -> JacksonConfig.jsonFactory();
+        };
+        return builder.factory(factory).build();
+    }
+
+    private static List<BookingDtoResponse> bookings() {
+        List<BookingDtoResponse> bookings = new ArrayList<>(SIZE);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (long i = 0; i < SIZE; i++) {
+            User owner = User.builder().id(i % 100).name("owner " + i % 100).email("owner" + i % 100 + "@mail.ru").build();
+            User booker = User.builder().id(1000 + i % 500).name("booker " + i % 500)
+                    .email("booker" + i % 500 + "@mail.ru").build();
+            Item item = Item.builder().id(i % 1000).name("item " + i % 1000).description("cordless drill, 18V")
+                    .available(true).owner(owner).build();
+            bookings.add(new BookingDtoResponse(i, item, booker, BookingStatus.APPROVED,
+                    start.plusHours(i), start.plusHours(i + 2)));
+        }
+        return bookings;
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        private BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
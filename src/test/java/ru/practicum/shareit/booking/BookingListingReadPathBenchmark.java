@@ -0,0 +1,179 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the JPA and R2DBC read paths of {@code GET /bookings} and {@code GET /items/search} under many
+ * concurrent clients. Prints throughput, latency percentiles and the peak number of live JVM threads for each
+ * path. Run with {@code mvn test -Pbenchmark}; point {@code spring.datasource.url} and {@code shareit.reactive.url}
+ * at a local Postgres to measure against it instead of H2.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=50")
+class BookingListingReadPathBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingListingReadPathBenchmark.class);
+
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int BOOKERS = 20;
+    private static final int BOOKINGS_PER_BOOKER = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    private final HttpClient client = HttpClient.newBuilder().build();
+    private final List<Long> bookerIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        long suffix = System.nanoTime();
+        User owner = userStorage.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        Item item = itemStorage.save(Item.builder()
+                .name("drill " + suffix)
+                .description("cordless drill")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().minusDays(BOOKINGS_PER_BOOKER);
+        List<Booking> bookings = new ArrayList<>();
+        for (int b = 0; b < BOOKERS; b++) {
+            User booker = userStorage.save(User.builder()
+                    .name("booker")
+                    .email("booker" + b + "-" + suffix + "@mail.ru")
+                    .build());
+            bookerIds.add(booker.getId());
+            for (int i = 0; i < BOOKINGS_PER_BOOKER; i++) {
+                Booking booking = new Booking();
+                booking.setItem(item);
+                booking.setUser(booker);
+                booking.setStatus(BookingStatus.APPROVED);
+                booking.setStart(start.plusDays(i));
+                booking.setEnd(start.plusDays(i).plusHours(2));
+                bookings.add(booking);
+            }
+        }
+        bookingStorage.saveAll(bookings);
+    }
+
+    @Test
+    void jpaVersusR2dbc() throws Exception {
+        for (String path : List.of("/bookings?state=ALL&size=50", "/items/search?text=drill")) {
+            run(path, MediaType.APPLICATION_JSON_VALUE);
+            run(path, MediaType.APPLICATION_NDJSON_VALUE);
+
+            Result jpa = run(path, MediaType.APPLICATION_JSON_VALUE);
+            Result r2dbc = run(path, MediaType.APPLICATION_NDJSON_VALUE);
+            print(path, "jpa", jpa);
+            print(path, "r2dbc", r2dbc);
+
+            assertEquals(0, jpa.failures, "JPA path returned errors");
+            assertEquals(0, r2dbc.failures, "R2DBC path returned errors");
+        }
+    }
+
+    private Result run(String path, String accept) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        int total = CLIENTS * REQUESTS_PER_CLIENT;
+        long[] latencies = new long[total];
+        int[] failures = new int[1];
+        List<CompletableFuture<Void>> clients = new ArrayList<>();
+
+        long started = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            int clientIndex = c;
+            clients.add(sendSequentially(path, accept, clientIndex, 0, latencies, failures));
+        }
+        CompletableFuture.allOf(clients.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        return new Result(total, failures[0], elapsed, latencies, threads.getPeakThreadCount());
+    }
+
+    private CompletableFuture<Void> sendSequentially(String path, String accept, int clientIndex, int sent,
+                                                     long[] latencies, int[] failures) {
+        if (sent == REQUESTS_PER_CLIENT) {
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .header("X-Sharer-User-Id", String.valueOf(bookerIds.get(clientIndex % bookerIds.size())))
+                .GET()
+                .build();
+        long started = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenCompose(response -> {
+                    latencies[clientIndex * REQUESTS_PER_CLIENT + sent] = System.nanoTime() - started;
+                    if (response.statusCode() != 200) {
+                        synchronized (failures) {
+                            failures[0]++;
+                        }
+                    }
+                    return sendSequentially(path, accept, clientIndex, sent + 1, latencies, failures);
+                });
+    }
+
+    private void print(String path, String stack, Result result) {
+        log.info("{} [{}]: {} requests in {} ms ({} req/s), p50 {} ms, p99 {} ms, peak threads {}, errors {}",
+                path, stack, result.requests, TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos),
+                Math.round(result.requests * 1e9 / result.elapsedNanos),
+                millis(result.percentile(0.50)), millis(result.percentile(0.99)),
+                result.peakThreads, result.failures);
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    private record Result(int requests, int failures, long elapsedNanos, long[] sortedLatencies, int peakThreads) {
+        double percentile(double quantile) {
+            int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)];
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the compare-and-set status transition with a pessimistic row lock when many owners' requests race
+ * for the bookings of one hot item. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.transaction.interceptor=INFO",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"
+})
+class BookingStatusContentionBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingStatusContentionBenchmark.class);
+
+    private static final int THREADS = 16;
+    private static final int BOOKINGS = 64;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<Long> bookingIds;
+
+    @BeforeEach
+    void setUp() {
+        long suffix = System.nanoTime();
+        User owner = userStorage.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        User booker = userStorage.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        Item item = itemStorage.save(Item.builder()
+                .name("hot item")
+                .description("hot item")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        bookingIds = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setItem(item);
+            booking.setUser(booker);
+            booking.setStatus(BookingStatus.WAITING);
+            booking.setStart(start.plusHours(i));
+            booking.setEnd(start.plusHours(i + 1));
+            bookingIds.add(bookingStorage.save(booking).getId());
+        }
+    }
+
+    @Test
+    void compareAndSetVersusRowLock() throws Exception {
+        Result optimistic = run(this::approveWithCompareAndSet);
+        Result pessimistic = run(this::approveWithRowLock);
+
+        log.info("compare-and-set: {} transitions, {} attempts in {} ms ({} attempts/s)",
+                optimistic.winners, optimistic.attempts, optimistic.millis, Math.round(optimistic.throughput()));
+        log.info("pessimistic lock: {} transitions, {} attempts in {} ms ({} attempts/s)",
+                pessimistic.winners, pessimistic.attempts, pessimistic.millis, Math.round(pessimistic.throughput()));
+
+        assertEquals(BOOKINGS * ROUNDS, optimistic.winners,
+                "every booking must be transitioned exactly once with compare-and-set");
+        assertEquals(BOOKINGS * ROUNDS, pessimistic.winners,
+                "every booking must be transitioned exactly once with row locks");
+    }
+
+    private Result run(Predicate<Long> transition) throws Exception {
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        long elapsed = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                transactionTemplate.executeWithoutResult(status ->
+                        bookingStorage.updateStatusByIdIn(bookingIds, BookingStatus.WAITING));
+
+                CountDownLatch startSignal = new CountDownLatch(1);
+                List<Future<?>> workers = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    List<Long> order = new ArrayList<>(bookingIds);
+                    Collections.shuffle(order);
+                    workers.add(executor.submit(() -> {
+                        startSignal.await();
+                        for (Long bookingId : order) {
+                            attempts.incrementAndGet();
+                            if (transition.test(bookingId)) {
+                                winners.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+
+                long started = System.nanoTime();
+                startSignal.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                elapsed += System.nanoTime() - started;
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return new Result(winners.get(), attempts.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private boolean approveWithCompareAndSet(Long bookingId) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                Booking booking = bookingStorage.findById(bookingId).orElseThrow();
+                if (booking.getStatus() != BookingStatus.WAITING) {
+                    return false;
+                }
+                return bookingStorage.compareAndSetStatus(bookingId, booking.getStart(),
+                        BookingStatus.WAITING, BookingStatus.APPROVED) == 1;
+            }));
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private boolean approveWithRowLock(Long bookingId) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                Booking booking = entityManager.find(Booking.class, bookingId, LockModeType.PESSIMISTIC_WRITE);
+                if (booking.getStatus() != BookingStatus.WAITING) {
+                    return false;
+                }
+                booking.setStatus(BookingStatus.APPROVED);
+                entityManager.flush();
+                return true;
+            }));
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private record Result(int winners, int attempts, long millis) {
+        double throughput() {
+            return millis == 0 ? attempts : attempts * 1000.0 / millis;
+        }
+    }
+}
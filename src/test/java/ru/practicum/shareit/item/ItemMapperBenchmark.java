@@ -0,0 +1,148 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.comment.dto.CommentDtoResponse;
+import ru.practicum.shareit.comment.mapper.CommentMapper;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Allocation profile of the owner item listing: the stream-based mapping it used to run ({@code streams})
+ * against the single-pass mappers ({@code loops}). Compare {@code gc.alloc.rate.norm} in the output.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemMapperBenchmark {
+
+    @Param({"10", "100"})
+    public int items;
+
+    @Param({"20"})
+    public int bookingsPerItem;
+
+    private List<Item> itemList;
+    private List<Booking> bookings;
+    private List<Comment> comments;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        now = LocalDateTime.of(2024, 6, 1, 12, 0);
+        User owner = User.builder().id(1L).name("owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+
+        itemList = new ArrayList<>();
+        bookings = new ArrayList<>();
+        comments = new ArrayList<>();
+        long bookingId = 0;
+        for (long i = 0; i < items; i++) {
+            Item item = Item.builder().id(i).name("item " + i).description("description").available(true)
+                    .owner(owner).build();
+            itemList.add(item);
+            for (int b = 0; b < bookingsPerItem; b++) {
+                Booking booking = new Booking();
+                booking.setId(bookingId++);
+                booking.setItem(item);
+                booking.setUser(booker);
+                booking.setStatus(BookingStatus.APPROVED);
+                booking.setStart(now.minusDays(bookingsPerItem / 2).plusDays(b));
+                booking.setEnd(booking.getStart().plusHours(3));
+                bookings.add(booking);
+            }
+            Comment comment = new Comment();
+            comment.setId(i);
+            comment.setItem(item);
+            comment.setOwner(booker);
+            comment.setText("great");
+            comment.setCreated(now);
+            comments.add(comment);
+        }
+    }
+
+    @Benchmark
+    public List<ItemDto> streams() {
+        Map<Long, List<Booking>> bookingsGroup = bookings.stream()
+                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        Map<Long, List<CommentDtoResponse>> commentsGroup = comments.stream().collect(Collectors.groupingBy(
+                c -> c.getItem().getId(),
+                Collectors.mapping(c -> CommentMapper.mapCommentToDto(c), Collectors.toList())));
+
+        return itemList.stream()
+                .map(item -> {
+                    List<Booking> bookingList = bookingsGroup.getOrDefault(item.getId(), Collections.emptyList());
+                    BookingDtoResponse last = bookingList.stream()
+                            .filter(b -> b.getEnd().isBefore(now))
+                            .max(Comparator.comparing(Booking::getEnd))
+                            .map(b -> BookingMapper.mapBookingToDto(b))
+                            .orElse(null);
+                    BookingDtoResponse next = bookingList.stream()
+                            .filter(b -> b.getStart().isAfter(now))
+                            .min(Comparator.comparing(Booking::getStart))
+                            .map(b -> BookingMapper.mapBookingToDto(b))
+                            .orElse(null);
+                    return ItemMapper.mapItemToItemDto(item, last, next,
+                            commentsGroup.getOrDefault(item.getId(), Collections.emptyList()));
+                })
+                .toList();
+    }
+
+    @Benchmark
+    public List<ItemDto> loops() {
+        Map<Long, List<Booking>> bookingsGroup = BookingMapper.groupByItemId(bookings, itemList.size());
+        Map<Long, List<CommentDtoResponse>> commentsGroup = CommentMapper.groupByItemId(comments, itemList.size());
+
+        List<ItemDto> result = new ArrayList<>(itemList.size());
+        for (int i = 0, size = itemList.size(); i < size; i++) {
+            Item item = itemList.get(i);
+            result.add(ItemMapper.mapItemToOwnerItemDto(item, bookingsGroup.get(item.getId()),
+                    commentsGroup.get(item.getId()), now, true));
+        }
+        return result;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(getClass().getName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemPopularity;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that moving the popularity landmark rescales stored scores so that old and new scores stay comparable.
+ * Runs on its own database with a landmark that rotates every half-life.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:itempopularity",
+        "shareit.reactive.url=r2dbc:h2:mem:///itempopularity?options=DB_CLOSE_DELAY=-1",
+        "shareit.item.popularity.half-life=P14D",
+        "shareit.item.popularity.landmark-rotation-age=P14D"
+})
+@ActiveProfiles("test")
+class ItemPopularityTests {
+
+    @Autowired
+    private ItemPopularity itemPopularity;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rotationRescalesScoresByWholeHalfLives() {
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("rotation@example.com").build());
+        ItemDto item = itemService.create(newItem("Rotated drill"), owner.getId());
+        LocalDateTime landmark = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(30);
+        setLandmark(landmark);
+        jdbcTemplate.update("UPDATE items SET popularity = 8.0 WHERE id = ?", item.getId());
+
+        itemPopularity.rotateLandmark();
+
+        assertEquals(landmark.plusDays(28), getLandmark());
+        assertEquals(2.0, getPopularity(item.getId()));
+    }
+
+    @Test
+    void scoresAddedBeforeAndAfterRotationStayComparable() {
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("comparable@example.com").build());
+        ItemDto before = itemService.create(newItem("Scored before rotation"), owner.getId());
+        ItemDto after = itemService.create(newItem("Scored after rotation"), owner.getId());
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        setLandmark(now.minusDays(100));
+        jdbcTemplate.update("UPDATE items SET popularity = 0 WHERE id IN (?, ?)", before.getId(), after.getId());
+
+        transactionTemplate.executeWithoutResult(status -> itemPopularity.onBookingApproved(before.getId(), now));
+        itemPopularity.rotateLandmark();
+        transactionTemplate.executeWithoutResult(status -> itemPopularity.onBookingApproved(after.getId(), now));
+
+        assertEquals(getPopularity(before.getId()), getPopularity(after.getId()), 1e-9);
+    }
+
+    private void setLandmark(LocalDateTime landmark) {
+        jdbcTemplate.update("UPDATE item_popularity_landmark SET landmark = ?", landmark);
+    }
+
+    private LocalDateTime getLandmark() {
+        return jdbcTemplate.queryForObject("SELECT landmark FROM item_popularity_landmark", LocalDateTime.class);
+    }
+
+    private double getPopularity(Long itemId) {
+        return jdbcTemplate.queryForObject("SELECT popularity FROM items WHERE id = ?", Double.class, itemId);
+    }
+
+    private static ItemDto newItem(String name) {
+        ItemDto item = new ItemDto();
+        item.setName(name);
+        item.setDescription("Item with a popularity score");
+        item.setAvailable(true);
+        return item;
+    }
+}
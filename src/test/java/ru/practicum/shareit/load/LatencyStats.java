@@ -0,0 +1,44 @@
+package ru.practicum.shareit.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one scenario, recorded from the intended send time so that a stalled server cannot hide its
+ * queueing delay.
+ */
+class LatencyStats {
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void record(long latencyNanos, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Snapshot(count, errors, sorted);
+    }
+
+    record Snapshot(int count, int errors, long[] sorted) {
+
+        double percentileMillis(double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+    }
+}
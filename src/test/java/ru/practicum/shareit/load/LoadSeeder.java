@@ -0,0 +1,116 @@
+package ru.practicum.shareit.load;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeds owners with many items, and items with a history of past, current and future bookings and comments.
+ */
+class LoadSeeder {
+    private static final List<String> NOUNS = List.of("drill", "ladder", "tent", "bike", "kayak", "projector",
+            "saw", "camera", "grill", "scooter", "sander", "tripod");
+    private static final List<String> ADJECTIVES = List.of("cordless", "folding", "electric", "compact",
+            "heavy-duty", "portable", "vintage", "professional");
+    private static final BookingStatus[] STATUSES = {BookingStatus.APPROVED, BookingStatus.APPROVED,
+        BookingStatus.APPROVED, BookingStatus.WAITING, BookingStatus.REJECTED, BookingStatus.CANCELED};
+
+    private final UserStorage userStorage;
+    private final ItemStorage itemStorage;
+    private final BookingStorage bookingStorage;
+    private final CommentStorage commentStorage;
+    private final Random random = new Random(42);
+
+    LoadSeeder(UserStorage userStorage, ItemStorage itemStorage, BookingStorage bookingStorage,
+               CommentStorage commentStorage) {
+        this.userStorage = userStorage;
+        this.itemStorage = itemStorage;
+        this.bookingStorage = bookingStorage;
+        this.commentStorage = commentStorage;
+    }
+
+    SeedData seed(int owners, int itemsPerOwner, int bookers, int bookingsPerItem, int commentsPerItem) {
+        long suffix = System.nanoTime();
+        List<User> ownerUsers = saveUsers("owner", owners, suffix);
+        List<User> bookerUsers = saveUsers("booker", bookers, suffix);
+
+        List<Item> items = new ArrayList<>();
+        for (User owner : ownerUsers) {
+            for (int i = 0; i < itemsPerOwner; i++) {
+                String adjective = ADJECTIVES.get(random.nextInt(ADJECTIVES.size()));
+                String noun = NOUNS.get(random.nextInt(NOUNS.size()));
+                items.add(Item.builder()
+                        .name(adjective + " " + noun)
+                        .description("A " + adjective + " " + noun + " in good condition, pick-up only")
+                        .available(random.nextInt(10) != 0)
+                        .owner(owner)
+                        .build());
+            }
+        }
+        items = itemStorage.saveAll(items);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : items) {
+            for (int b = 0; b < bookingsPerItem; b++) {
+                Booking booking = new Booking();
+                booking.setItem(item);
+                booking.setUser(bookerUsers.get(random.nextInt(bookerUsers.size())));
+                booking.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+                booking.setStart(now.plusDays(b * 3L - bookingsPerItem * 2L).plusHours(random.nextInt(24)));
+                booking.setEnd(booking.getStart().plusDays(1 + random.nextInt(2)));
+                bookings.add(booking);
+            }
+            for (int c = 0; c < commentsPerItem; c++) {
+                Comment comment = new Comment();
+                comment.setItem(item);
+                comment.setOwner(bookerUsers.get(random.nextInt(bookerUsers.size())));
+                comment.setText("Worked well, would rent again #" + c);
+                comment.setCreated(now.minusDays(random.nextInt(365)));
+                comments.add(comment);
+            }
+        }
+        bookingStorage.saveAll(bookings);
+        commentStorage.saveAll(comments);
+
+        Map<Long, Long> itemOwners = new HashMap<>();
+        List<Long> itemIds = new ArrayList<>();
+        for (Item item : items) {
+            itemIds.add(item.getId());
+            itemOwners.put(item.getId(), item.getOwner().getId());
+        }
+        List<String> terms = new ArrayList<>(NOUNS);
+        terms.addAll(ADJECTIVES);
+        return new SeedData(ids(ownerUsers), ids(bookerUsers), itemIds, itemOwners, terms);
+    }
+
+    private List<User> saveUsers(String role, int count, long suffix) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder().name(role + " " + i).email(role + i + "-" + suffix + "@mail.ru").build());
+        }
+        return userStorage.saveAll(users);
+    }
+
+    private List<Long> ids(List<User> users) {
+        List<Long> ids = new ArrayList<>(users.size());
+        for (User user : users) {
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+}
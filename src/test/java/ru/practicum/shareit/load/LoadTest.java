@@ -0,0 +1,157 @@
+package ru.practicum.shareit.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.comment.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application on an embedded database, seeds it and drives the weighted {@link Scenario} mix at an
+ * open-model arrival rate, then compares p50 and p99 per scenario with {@code load/baseline.properties}.
+ * <p>
+ * Run with {@code mvn test -Pload}. Tunables, as {@code -D} system properties: {@code load.rate} (requests per
+ * second, default 50), {@code load.duration} and {@code load.warmup} (ISO-8601 durations, default PT60S and
+ * PT15S), {@code load.tolerance} (allowed slowdown factor, default 1.5) and {@code load.slackMillis} (absolute
+ * allowance, default 5) and {@code load.minP99Samples} (default 500). p99 is only compared for scenarios with at
+ * least that many requests, as with fewer it is set by a couple of outliers. With {@code -Dload.updateBaseline=true} the measured percentiles are written to
+ * {@code src/test/resources/load/baseline.properties} instead of being compared; otherwise a missing baseline
+ * fails the test, and so does comparing against a baseline recorded at another rate. SQL and per-transaction logging is switched off so that the console does not dominate the
+ * measured latencies.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.transaction.interceptor=INFO",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"
+})
+class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String BASELINE_RESOURCE = "/load/baseline.properties";
+    private static final String RATE_KEY = "load.rate";
+    private static final Path BASELINE_SOURCE = Path.of("src", "test", "resources", "load", "baseline.properties");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private CommentStorage commentStorage;
+
+    @Test
+    void scenarioMix() throws Exception {
+        double rate = Double.parseDouble(System.getProperty(RATE_KEY, "50"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT15S"));
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "1.5"));
+        double slackMillis = Double.parseDouble(System.getProperty("load.slackMillis", "5"));
+        long minP99Samples = Long.getLong("load.minP99Samples", 500);
+
+        SeedData data = new LoadSeeder(userStorage, itemStorage, bookingStorage, commentStorage)
+                .seed(50, 20, 200, 30, 5);
+        OpenModelDriver driver = new OpenModelDriver("http://localhost:" + port, data);
+        driver.run(rate, warmup);
+        Map<Scenario, LatencyStats> stats = driver.run(rate, duration);
+
+        Properties measured = new Properties();
+        measured.setProperty(RATE_KEY, format(rate));
+        StringBuilder report = new StringBuilder(String.format("%-20s %8s %8s %10s %10s %10s", "scenario", "count",
+                "errors", "p50 ms", "p99 ms", "p999 ms"));
+        List<String> failures = new ArrayList<>();
+        List<String> unreliable = new ArrayList<>();
+        for (Map.Entry<Scenario, LatencyStats> entry : stats.entrySet()) {
+            String name = entry.getKey().name();
+            LatencyStats.Snapshot snapshot = entry.getValue().snapshot();
+            report.append(String.format(Locale.ROOT, "%n%-20s %8d %8d %10.1f %10.1f %10.1f", name, snapshot.count(),
+                    snapshot.errors(), snapshot.percentileMillis(0.50), snapshot.percentileMillis(0.99),
+                    snapshot.percentileMillis(0.999)));
+
+            measured.setProperty(name + ".p50", format(snapshot.percentileMillis(0.50)));
+            measured.setProperty(name + ".p99", format(snapshot.percentileMillis(0.99)));
+            if (snapshot.count() < minP99Samples) {
+                unreliable.add(name + ".p99");
+            }
+            if (snapshot.errorRate() > 0.01) {
+                failures.add(name + " error rate " + format(snapshot.errorRate() * 100) + "%");
+            }
+        }
+
+        log.info("Load test results at {} requests/s for {}:\n{}", rate, duration, report);
+
+        Properties baseline = loadBaseline();
+        if (Boolean.getBoolean("load.updateBaseline")) {
+            writeBaseline(measured, rate, duration);
+            log.info("Baseline written to {}", BASELINE_SOURCE.toAbsolutePath());
+        } else if (baseline == null) {
+            failures.add("No baseline at " + BASELINE_SOURCE + ", record one with -Dload.updateBaseline=true");
+        } else if (!format(rate).equals(baseline.getProperty(RATE_KEY))) {
+            failures.add("Baseline was recorded at " + baseline.getProperty(RATE_KEY) + " requests/s, not at "
+                    + format(rate));
+        } else {
+            for (String key : measured.stringPropertyNames()) {
+                if (key.equals(RATE_KEY) || unreliable.contains(key)) {
+                    continue;
+                }
+                String expected = baseline.getProperty(key);
+                double actual = Double.parseDouble(measured.getProperty(key));
+                if (expected != null && actual > Double.parseDouble(expected) * tolerance + slackMillis) {
+                    failures.add(key + " regressed: " + format(actual) + " ms against baseline " + expected + " ms");
+                }
+            }
+        }
+
+        assertTrue(failures.isEmpty(), String.join("\n", failures) + "\n" + report);
+    }
+
+    private Properties loadBaseline() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(BASELINE_RESOURCE)) {
+            if (in == null) {
+                return null;
+            }
+            Properties baseline = new Properties();
+            baseline.load(in);
+            return baseline;
+        }
+    }
+
+    private void writeBaseline(Properties measured, double rate, Duration duration) throws IOException {
+        Files.createDirectories(BASELINE_SOURCE.getParent());
+        try (OutputStream out = Files.newOutputStream(BASELINE_SOURCE)) {
+            measured.store(out, "Latency baseline in ms for load.duration=" + duration);
+        }
+    }
+
+    private String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests arrive as a Poisson process at a fixed mean rate whether or not earlier
+ * requests have completed, the way independent clients do. Each request is sent asynchronously and timed
+ * from its scheduled arrival.
+ */
+class OpenModelDriver {
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final SeedData data;
+
+    OpenModelDriver(String baseUrl, SeedData data) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+    }
+
+    /**
+     * Runs the mix and waits for every request; fails with {@link TimeoutException} if some are still running
+     * a minute after the last arrival.
+     */
+    Map<Scenario, LatencyStats> run(double ratePerSecond, Duration duration) throws Exception {
+        Map<Scenario, LatencyStats> stats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new LatencyStats());
+        }
+        Map<CompletableFuture<?>, Boolean> inFlight = new ConcurrentHashMap<>();
+
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        long nextArrival = started;
+        while (nextArrival < deadline) {
+            long wait = nextArrival - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = Scenario.next();
+            long scheduledAt = nextArrival;
+            CompletableFuture<?> call = client
+                    .sendAsync(scenario.request(baseUrl, data), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        stats.get(scenario).record(System.nanoTime() - scheduledAt,
+                                error != null || !scenario.isExpected(response.statusCode()));
+                        return null;
+                    });
+            inFlight.put(call, Boolean.TRUE);
+            call.thenRun(() -> inFlight.remove(call));
+
+            double gap = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos;
+            nextArrival += (long) gap;
+        }
+
+        CompletableFuture.allOf(inFlight.keySet().toArray(new CompletableFuture<?>[0])).get(1, TimeUnit.MINUTES);
+        return stats;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * Weighted request mix across the item, booking and user endpoints.
+ */
+enum Scenario {
+    ITEM_GET(30, (base, data) -> {
+        Long itemId = pick(data.itemIds());
+        return get(base + "/items/" + itemId, pick(data.bookerIds()));
+    }),
+    ITEM_GET_AS_OWNER(5, (base, data) -> {
+        Long itemId = pick(data.itemIds());
+        return get(base + "/items/" + itemId, data.itemOwners().get(itemId));
+    }),
+    ITEM_OWNER_LIST(10, (base, data) -> get(base + "/items", pick(data.ownerIds()))),
+    ITEM_BATCH(5, (base, data) -> {
+        StringJoiner ids = new StringJoiner(",");
+        for (int i = 0; i < 10; i++) {
+            ids.add(String.valueOf(pick(data.itemIds())));
+        }
+        return get(base + "/items?ids=" + ids, pick(data.bookerIds()));
+    }),
+    ITEM_SEARCH(20, (base, data) -> get(base + "/items/search?text=" + pick(data.searchTerms()),
+            pick(data.bookerIds()))),
+    BOOKING_LIST(12, (base, data) -> get(base + "/bookings?state=" + pickState() + "&size=20",
+            pick(data.bookerIds()))),
+    BOOKING_OWNER_LIST(8, (base, data) -> get(base + "/bookings/owner?state=" + pickState() + "&size=20",
+            pick(data.ownerIds()))),
+    USER_GET(8, (base, data) -> get(base + "/users/" + pick(data.bookerIds()), null)),
+    BOOKING_CREATE(2, (base, data) -> {
+        LocalDateTime start = LocalDateTime.now().plusDays(30 + ThreadLocalRandom.current().nextInt(300));
+        String body = "{\"itemId\":" + pick(data.itemIds()) + ",\"start\":\"" + start + "\",\"end\":\""
+                + start.plusDays(2) + "\"}";
+        return HttpRequest.newBuilder(URI.create(base + "/bookings"))
+                .header("Content-Type", "application/json")
+                .header("X-Sharer-User-Id", String.valueOf(pick(data.bookerIds())))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    });
+
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING"};
+    private static final Scenario[] VALUES = values();
+    private static final int TOTAL_WEIGHT;
+
+    static {
+        int total = 0;
+        for (Scenario scenario : VALUES) {
+            total += scenario.weight;
+        }
+        TOTAL_WEIGHT = total;
+    }
+
+    private final int weight;
+    private final BiFunction<String, SeedData, HttpRequest> request;
+
+    Scenario(int weight, BiFunction<String, SeedData, HttpRequest> request) {
+        this.weight = weight;
+        this.request = request;
+    }
+
+    HttpRequest request(String baseUrl, SeedData data) {
+        return request.apply(baseUrl, data);
+    }
+
+    /**
+     * Accepts 2xx and the 4xx answers a realistic mix produces, such as booking an unavailable item.
+     */
+    boolean isExpected(int status) {
+        return status < 400 || this == BOOKING_CREATE && status == 400;
+    }
+
+    static Scenario next() {
+        int roll = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Scenario scenario : VALUES) {
+            roll -= scenario.weight;
+            if (roll < 0) {
+                return scenario;
+            }
+        }
+        return VALUES[VALUES.length - 1];
+    }
+
+    private static HttpRequest get(String url, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (userId != null) {
+            builder.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return builder.build();
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static String pickState() {
+        return STATES[ThreadLocalRandom.current().nextInt(STATES.length)];
+    }
+}
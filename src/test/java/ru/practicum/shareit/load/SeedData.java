@@ -0,0 +1,8 @@
+package ru.practicum.shareit.load;
+
+import java.util.List;
+import java.util.Map;
+
+record SeedData(List<Long> ownerIds, List<Long> bookerIds, List<Long> itemIds, Map<Long, Long> itemOwners,
+                List<String> searchTerms) {
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxProperties;
+import ru.practicum.shareit.outbox.service.OutboxRelay;
+import ru.practicum.shareit.outbox.sink.InMemoryOutboxSink;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+import ru.practicum.shareit.outbox.storage.OutboxStorage;
+import ru.practicum.shareit.shard.ShardRouter;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OutboxRelayTests {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OutboxStorage outboxStorage;
+
+    @Autowired
+    private OutboxProperties properties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void relayPublishesCommittedEventsAndRemovesThem() {
+        UserDto user = userService.create(UserDto.builder().name("User").email("outbox@example.com").build());
+
+        outboxRelay.relay();
+
+        assertTrue(sink.getPublished().stream()
+                .anyMatch(event -> event.getEventType() == OutboxEventType.USER_CREATED
+                        && event.getAggregateId().equals(user.getId())));
+        assertEquals(0, outboxStorage.count());
+    }
+
+    @Test
+    void relayRefusesToStartWithoutSink() {
+        StaticListableBeanFactory noSinks = new StaticListableBeanFactory();
+
+        assertThrows(IllegalStateException.class, () -> new OutboxRelay(outboxStorage,
+                noSinks.getBeanProvider(OutboxSink.class), transactionTemplate, properties, shardRouter,
+                new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void publishedEventsKeepTheirOrderPerAggregate() {
+        UserDto user = userService.create(UserDto.builder().name("User").email("ordered@example.com").build());
+        userService.update(UserDto.builder().name("Renamed").build(), user.getId());
+        userService.delete(user.getId());
+
+        outboxRelay.relay();
+
+        String aggregateType = OutboxEventType.USER_CREATED.getAggregateType();
+        assertEquals(List.of(OutboxEventType.USER_CREATED, OutboxEventType.USER_UPDATED, OutboxEventType.USER_DELETED),
+                sink.getPublished().stream()
+                        .filter(event -> event.getAggregateType().equals(aggregateType)
+                                && event.getAggregateId().equals(user.getId()))
+                        .map(OutboxEvent::getEventType)
+                        .toList());
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserReplicator;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the application on three in-memory H2 databases and checks where writes land.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "sharded"})
+class ShardingTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private UserReplicator userReplicator;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void usersAreReplicatedToEveryShard() {
+        UserDto user = userService.create(newUser("replicated@example.com"));
+        userService.update(UserDto.builder().name("Renamed").build(), user.getId());
+
+        assertEquals(3, shardRouter.shardCount());
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Optional<User> replica = onShard(shard, () -> userStorage.findById(user.getId()));
+            assertTrue(replica.isPresent(), "user is missing on shard " + shard);
+            assertEquals("replicated@example.com", replica.get().getEmail());
+            assertEquals("Renamed", replica.get().getName());
+        }
+    }
+
+    @Test
+    void itemsAreCreatedOnTheShardOfTheirOwner() {
+        UserDto owner = userService.create(newUser("owner@example.com"));
+        ItemDto item = itemService.create(newItem(), owner.getId());
+
+        int home = shardRouter.shardOf(owner.getId());
+        assertEquals(home, shardRouter.shardOf(item.getId()));
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            assertEquals(shard == home, onShard(shard, () -> itemStorage.existsById(item.getId())),
+                    "unexpected presence of the item on shard " + shard);
+        }
+    }
+
+    @Test
+    void failedReplicationIsRetried() {
+        // A row holding the email on one replica makes copying the new user there fail.
+        onShard(1, () -> jdbcTemplate.update("INSERT INTO users (id, email, name) VALUES (-1, 'taken@example.com', "
+                + "'Squatter')"));
+        UserDto user = userService.create(newUser("taken@example.com"));
+        assertTrue(onShard(1, () -> userStorage.findById(user.getId())).isEmpty());
+        assertTrue(onShard(2, () -> userStorage.findById(user.getId())).isPresent());
+
+        onShard(1, () -> jdbcTemplate.update("DELETE FROM users WHERE id = -1"));
+        userReplicator.run();
+
+        assertTrue(onShard(1, () -> userStorage.findById(user.getId())).isPresent());
+    }
+
+    private <T> T onShard(int shard, Supplier<T> action) {
+        return ShardContext.call(shard, () -> transactionTemplate.execute(status -> action.get()));
+    }
+
+    private static UserDto newUser(String email) {
+        return UserDto.builder().name("User").email(email).build();
+    }
+
+    private static ItemDto newItem() {
+        ItemDto item = new ItemDto();
+        item.setName("Drill");
+        item.setDescription("Cordless drill");
+        item.setAvailable(true);
+        return item;
+    }
+}
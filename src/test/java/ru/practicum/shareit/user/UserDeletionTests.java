@@ -0,0 +1,155 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.ReactiveBookingReader;
+import ru.practicum.shareit.common.FieldSelection;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserPurger;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a deleted user and their items disappear at once and that the purger removes their rows over
+ * several runs. Runs on its own database with tiny batches and the scheduled purge effectively off.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:userdeletion",
+        "shareit.reactive.url=r2dbc:h2:mem:///userdeletion?options=DB_CLOSE_DELAY=-1",
+        "shareit.user.purge.interval=PT1H",
+        "shareit.user.purge.batch-size=2",
+        "shareit.user.purge.max-batches-per-run=1",
+        "shareit.user.purge.batch-pause=PT0S"
+})
+@ActiveProfiles("test")
+class UserDeletionTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ReactiveBookingReader reactiveBookingReader;
+
+    @Autowired
+    private UserPurger userPurger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletedUserIsHiddenAndTheirEmailCanBeReused() {
+        UserDto user = userService.create(newUser("gone@example.com"));
+        assertTrue(reactiveBookingReader.existsUserById(user.getId()).block());
+
+        userService.delete(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userService.findById(user.getId()));
+        assertTrue(userService.findAll().stream().noneMatch(found -> found.getId().equals(user.getId())));
+        assertFalse(reactiveBookingReader.existsUserById(user.getId()).block());
+        assertTrue(userStorage.findIncludingDeletedById(user.getId()).isPresent());
+        UserDto reused = userService.create(newUser("gone@example.com"));
+        assertEquals("gone@example.com", userService.findById(reused.getId()).getEmail());
+    }
+
+    @Test
+    void itemsOfDeletedOwnerAreHiddenAndCannotBeBooked() {
+        UserDto owner = userService.create(newUser("hidden-owner@example.com"));
+        UserDto booker = userService.create(newUser("hidden-booker@example.com"));
+        ItemDto item = itemService.create(newItem("Hidden lathe"), owner.getId());
+        assertEquals(1, itemService.search("hidden lathe", null, FieldSelection.all()).size());
+
+        userService.delete(owner.getId());
+
+        assertThrows(NotFoundException.class, () -> itemService.findById(item.getId(), booker.getId(),
+                FieldSelection.all()));
+        assertTrue(itemService.findByUserId(owner.getId(), FieldSelection.all()).isEmpty());
+        assertTrue(itemService.search("hidden lathe", null, FieldSelection.all()).isEmpty());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDtoRequest booking = new BookingDtoRequest(item.getId(), start, start.plusDays(1));
+        assertThrows(NotFoundException.class, () -> bookingService.create(booking, booker.getId()));
+    }
+
+    @Test
+    void purgeProgressesInBatchesAcrossRuns() {
+        purgeDeletedUsers();
+        UserDto owner = userService.create(newUser("purged@example.com"));
+        for (int i = 0; i < 5; i++) {
+            itemService.create(newItem("Purged item " + i), owner.getId());
+        }
+        jdbcTemplate.update("INSERT INTO bookings_archive (id, status, item_id, user_id, start_time, end_time, "
+                + "archived_at) VALUES (-1, 'APPROVED', -1, ?, ?, ?, ?)", owner.getId(),
+                LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2), LocalDateTime.now());
+
+        userService.delete(owner.getId());
+
+        // One batch of at most two rows per run: the archived booking, then the items two at a time.
+        userPurger.run();
+        assertEquals(0, countRows("bookings_archive", "user_id", owner.getId()));
+        assertEquals(5, countRows("items", "owner_id", owner.getId()));
+        userPurger.run();
+        assertEquals(3, countRows("items", "owner_id", owner.getId()));
+        userPurger.run();
+        assertEquals(1, countRows("items", "owner_id", owner.getId()));
+        assertTrue(userStorage.findIncludingDeletedById(owner.getId()).isPresent());
+
+        userPurger.run();
+        assertEquals(0, countRows("items", "owner_id", owner.getId()));
+        userPurger.run();
+        assertTrue(userStorage.findIncludingDeletedById(owner.getId()).isEmpty());
+    }
+
+    /**
+     * Finishes purging users deleted by other tests, which would otherwise share the batch budget of a run.
+     */
+    private void purgeDeletedUsers() {
+        for (int run = 0; run < 20 && countDeletedUsers() > 0; run++) {
+            userPurger.run();
+        }
+        assertEquals(0, countDeletedUsers());
+    }
+
+    private long countDeletedUsers() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE deleted_at IS NOT NULL", Long.class);
+    }
+
+    private long countRows(String table, String column, Long userId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE " + column + " = ?",
+                Long.class, userId);
+    }
+
+    private static UserDto newUser(String email) {
+        return UserDto.builder().name("User").email(email).build();
+    }
+
+    private static ItemDto newItem(String name) {
+        ItemDto item = new ItemDto();
+        item.setName(name);
+        item.setDescription("Item of a user who gets deleted");
+        item.setAvailable(true);
+        return item;
+    }
+}